@@ -0,0 +1,85 @@
+package com.mincheol.querydsl.benchmark;
+
+import com.mincheol.querydsl.entity.Member;
+import com.mincheol.querydsl.entity.Team;
+import com.mincheol.querydsl.seed.DataSeeder;
+import com.mincheol.querydsl.seed.SeedSpec;
+import com.mincheol.querydsl.service.BulkInsertService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BulkInsertService 처리량 (rows/s)
+ * batching=false 는 JDBC batch, insert 정렬을 끈 상태. (시퀀스 pooled 할당은 매핑에 고정이라 양쪽 공통)
+ * dataSeeder 는 같은 양을 엔티티 없이 JDBC batch 로 넣는 DataSeeder (batching 과 무관)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BulkInsertBenchmark {
+
+    static final int TEAMS = 10;
+    static final int MEMBERS = 10_000;
+
+    @Param({"true", "false"})
+    public boolean batching;
+
+    ConfigurableApplicationContext context;
+    BulkInsertService bulkInsertService;
+    DataSeeder dataSeeder;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = batching
+                ? SeededDatabase.startContext()
+                : SeededDatabase.startContext(
+                "spring.jpa.properties.hibernate.jdbc.batch_size=0",
+                "spring.jpa.properties.hibernate.order_inserts=false");
+        bulkInsertService = context.getBean(BulkInsertService.class);
+        dataSeeder = context.getBean(DataSeeder.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TEAMS + MEMBERS)
+    public void insertTeams() {
+        List<Team> teams = new ArrayList<>(TEAMS);
+        for (int t = 0; t < TEAMS; t++) {
+            teams.add(new Team("team" + t));
+        }
+        for (int i = 0; i < MEMBERS; i++) {
+            new Member("member" + i, i % 100, teams.get(i % TEAMS));
+        }
+        bulkInsertService.insertTeams(teams);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TEAMS + MEMBERS)
+    public void dataSeeder() {
+        dataSeeder.seed(new SeedSpec().setTeams(TEAMS).setMembers(MEMBERS));
+    }
+}
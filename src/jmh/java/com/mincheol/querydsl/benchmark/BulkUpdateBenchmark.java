@@ -0,0 +1,96 @@
+package com.mincheol.querydsl.benchmark;
+
+import com.mincheol.querydsl.entity.Member;
+import com.mincheol.querydsl.service.BulkUpdateService;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.mincheol.querydsl.entity.QMember.member;
+
+/**
+ * 전체 회원 age + 1 처리량 (rows/s)
+ * dirtyChecking : 1000 건씩 읽어서 setAge 후 flush/clear (JDBC batch, order_updates 적용)
+ * bulk          : BulkUpdateService.addAge (1000 건씩 update 쿼리 한 번)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 8, time = 5)     // 한 번 호출이 길어서 JIT 가 자리잡는 데 오래 걸림
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BulkUpdateBenchmark {
+
+    static final int TEAMS = 10;
+    static final int MEMBERS = 10_000;
+    static final int CHUNK_SIZE = 1000;
+
+    ConfigurableApplicationContext context;
+    EntityManagerFactory emf;
+    BulkUpdateService bulkUpdateService;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = SeededDatabase.startContext("querydsl.bulk.chunk-size=" + CHUNK_SIZE);
+        emf = context.getBean(EntityManagerFactory.class);
+        bulkUpdateService = context.getBean(BulkUpdateService.class);
+        SeededDatabase.seed(context, TEAMS, MEMBERS);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MEMBERS)
+    public void dirtyChecking() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            JPAQueryFactory queryFactory = new JPAQueryFactory(em);
+            Long lastId = null;
+            List<Member> chunk;
+            do {
+                chunk = queryFactory
+                        .selectFrom(member)
+                        .where(lastId == null ? null : member.id.gt(lastId))
+                        .orderBy(member.id.asc())
+                        .limit(CHUNK_SIZE)
+                        .fetch();
+                for (Member m : chunk) {
+                    m.setAge(m.getAge() + 1);
+                    lastId = m.getId();
+                }
+                em.flush();
+                em.clear();
+            } while (chunk.size() == CHUNK_SIZE);
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MEMBERS)
+    public long bulk() {
+        return bulkUpdateService.addAge(null, 1);
+    }
+}
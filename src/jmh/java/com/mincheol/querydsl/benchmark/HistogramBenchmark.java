@@ -0,0 +1,88 @@
+package com.mincheol.querydsl.benchmark;
+
+import com.mincheol.querydsl.repository.MemberHistogramRepository;
+import com.mincheol.querydsl.support.Buckets;
+import com.querydsl.core.types.dsl.CaseBuilder;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import static com.mincheol.querydsl.entity.QMember.member;
+
+/**
+ * 나이 구간별 인원 수 : complexCase 처럼 회원마다 label 을 받아서 자바에서 세기 vs MemberHistogramRepository (DB 에서 group by)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HistogramBenchmark {
+
+    EntityManager em;
+    JPAQueryFactory queryFactory;
+    MemberHistogramRepository memberHistogramRepository;
+
+    Buckets<Integer> ageBuckets = Buckets.of(member.age)
+            .range("0~20", 0, 20)
+            .range("21~30", 21, 30)
+            .otherwise("기타");
+
+    @Setup(Level.Trial)
+    public void open(SeededDatabase db) {
+        em = db.emf.createEntityManager();
+        queryFactory = new JPAQueryFactory(em);
+        memberHistogramRepository = new MemberHistogramRepository(em);
+
+        // H2 는 테이블이 안 바뀌었으면 같은 쿼리의 이전 결과를 그대로 돌려주므로 끔 (매번 group by 하게)
+        em.getTransaction().begin();
+        em.createNativeQuery("set optimize_reuse_results 0").executeUpdate();
+        em.getTransaction().commit();
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        em.close();
+    }
+
+    @Benchmark
+    public Map<String, Long> countInJava() {
+        Map<String, Long> histogram = new TreeMap<>();
+        for (String label : queryFactory
+                .select(new CaseBuilder()
+                        .when(member.age.between(0, 20)).then("0~20")
+                        .when(member.age.between(21, 30)).then("21~30")
+                        .otherwise("기타"))
+                .from(member)
+                .fetch()) {
+            histogram.merge(label, 1L, Long::sum);
+        }
+        return histogram;
+    }
+
+    @Benchmark
+    public Map<String, Long> groupBy() {
+        return memberHistogramRepository.ageHistogram(ageBuckets, null);
+    }
+
+    @Benchmark
+    public Map<String, Map<String, Long>> groupByTeam() {
+        return memberHistogramRepository.ageHistogramByTeam(ageBuckets, null);
+    }
+}
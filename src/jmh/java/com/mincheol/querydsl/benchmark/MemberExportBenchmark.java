@@ -0,0 +1,107 @@
+package com.mincheol.querydsl.benchmark;
+
+import com.mincheol.querydsl.service.MemberExportService;
+import com.mincheol.querydsl.service.MemberExportService.Format;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Timeout;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MemberExportService 로 회원 rows 명 전체를 NDJSON 으로 내보내기 (버리는 OutputStream 에 씀)
+ * 힙을 1g 로 제한해서 돌림. 10,000,000 건을 List 로 fetch() 하면 이 힙에 들어가지 않음
+ * 한 번 내보낼 때마다 첫 flush 까지 걸린 시간(time-to-first-byte)을 모아서, 끝날 때 GC 후 최대 힙 사용량과 같이 출력함
+ * 회원이 많아서 임시 디렉터리의 파일 DB 에 DataSeeder 로 넣음
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@Timeout(time = 30, timeUnit = TimeUnit.MINUTES)    // 첫 iteration 에 데이터 넣는 시간이 포함됨. 기본 10분이 지나 interrupt 되면 H2 파일 채널이 닫힘
+public class MemberExportBenchmark {
+
+    @Param("10000000")
+    public int rows;
+
+    ConfigurableApplicationContext context;
+    MemberExportService memberExportService;
+    final List<Long> firstByteMillis = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void open() {
+        context = SeededDatabase.startContext(
+                "spring.datasource.url=jdbc:h2:file:${java.io.tmpdir}/member-export-benchmark",
+                "spring.jpa.hibernate.ddl-auto=create");
+        memberExportService = context.getBean(MemberExportService.class);
+
+        SeededDatabase.seed(context, 100, rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        Collections.sort(firstByteMillis);
+        long peakHeapAfterGc = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getCollectionUsage() != null) {
+                peakHeapAfterGc += pool.getCollectionUsage().getUsed();
+            }
+        }
+        System.out.printf("%ntime to first byte (ms): %s, heap used after last GC: %d MB%n",
+                firstByteMillis, peakHeapAfterGc / 1024 / 1024);
+        context.close();
+    }
+
+    @Benchmark
+    public long export() {
+        FirstFlushStream out = new FirstFlushStream();
+        long count = memberExportService.export(out, Format.NDJSON);
+        firstByteMillis.add(TimeUnit.NANOSECONDS.toMillis(out.firstFlush - out.start));
+        return count + out.bytes;
+    }
+
+    static class FirstFlushStream extends OutputStream {
+
+        final long start = System.nanoTime();
+        long firstFlush;
+        long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+
+        @Override
+        public void flush() {
+            if (firstFlush == 0) {
+                firstFlush = System.nanoTime();
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.mincheol.querydsl.benchmark;
+
+import com.mincheol.querydsl.dto.MemberDto;
+import com.mincheol.querydsl.dto.MemberSearchCondition;
+import com.mincheol.querydsl.repository.MemberQueryRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 조건 조합 검색 (MemberQueryRepository.search) : 인덱스 있음 vs 없음
+ * 회원은 DataSeeder 로 넣음 (회원 i : username "member{i}", age i % 100, 팀 i % 1000)
+ * indexed=false 는 idx_member_username_id, idx_member_age_id, idx_team_name 을 지운 상태 (풀 스캔 + 정렬)
+ * 기본 회원 10,000,000 명은 메모리 DB 에 다 안 들어가서 임시 디렉터리의 파일 DB 를 씀 (-p rows=... 로 줄일 수 있음)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class MemberSearchBenchmark {
+
+    static final int TEAMS = 1000;
+    static final int LIMIT = 20;
+
+    @Param("10000000")
+    public int rows;
+
+    @Param({"true", "false"})
+    public boolean indexed;
+
+    ConfigurableApplicationContext context;
+    EntityManager em;
+    MemberQueryRepository memberQueryRepository;
+
+    MemberSearchCondition prefix = new MemberSearchCondition();
+    MemberSearchCondition ageRange = new MemberSearchCondition();
+    MemberSearchCondition teamName = new MemberSearchCondition();
+
+    @Setup(Level.Trial)
+    public void open() {
+        context = SeededDatabase.startContext(
+                "spring.datasource.url=jdbc:h2:file:${java.io.tmpdir}/member-search-benchmark",
+                "spring.jpa.hibernate.ddl-auto=create");
+        em = context.getBean(EntityManagerFactory.class).createEntityManager();
+        memberQueryRepository = context.getBean(MemberQueryRepository.class);
+
+        em.getTransaction().begin();
+        // H2 는 테이블이 안 바뀌었으면 같은 쿼리의 이전 결과를 그대로 돌려주므로 끔
+        em.createNativeQuery("set optimize_reuse_results 0").executeUpdate();
+        em.getTransaction().commit();
+
+        SeededDatabase.seed(context, TEAMS, rows);
+
+        if (!indexed) {
+            em.getTransaction().begin();
+            em.createNativeQuery("drop index idx_member_username_id").executeUpdate();
+            em.createNativeQuery("drop index idx_member_age_id").executeUpdate();
+            em.createNativeQuery("drop index idx_team_name").executeUpdate();
+            em.getTransaction().commit();
+        }
+
+        prefix.setUsernamePrefix("member12345");
+        ageRange.setAgeGoe(30);
+        ageRange.setAgeLoe(31);
+        teamName.setTeamName("team7");
+        teamName.setAgeGoe(50);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        em.close();
+        context.close();
+    }
+
+    @Benchmark
+    public List<MemberDto> usernamePrefix() {
+        return memberQueryRepository.search(prefix, LIMIT);
+    }
+
+    @Benchmark
+    public List<MemberDto> ageRange() {
+        return memberQueryRepository.search(ageRange, LIMIT);
+    }
+
+    @Benchmark
+    public List<MemberDto> teamNameAndAge() {
+        return memberQueryRepository.search(teamName, LIMIT);
+    }
+}
@@ -0,0 +1,131 @@
+package com.mincheol.querydsl.benchmark;
+
+import com.mincheol.querydsl.dto.TeamStatsDto;
+import com.mincheol.querydsl.dto.QTeamStatsDto;
+import com.mincheol.querydsl.snapshot.MemberSnapshot;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Timeout;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.mincheol.querydsl.entity.QMember.member;
+import static com.mincheol.querydsl.entity.QTeam.team;
+
+/**
+ * 대시보드 집계 : JPQL (H2) vs MemberSnapshot (메모리 컬럼)
+ * - count    : 나이 범위 + 팀 이름 조건 건수
+ * - avg      : username 접두어 조건의 평균 나이 (스냅샷은 username 사전 전체에 startsWith 를 한 번씩)
+ * - byTeam   : 팀 이름별 count/sum/min/max (group by team.name)
+ * 회원은 DataSeeder 로 넣고 스냅샷은 setup 에서 한 번 읽음. 기본 1,000,000 명 / 1,000 팀 (-p rows=...,teams=...)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@Timeout(time = 30, timeUnit = TimeUnit.MINUTES)
+public class MemberSnapshotBenchmark {
+
+    static final Predicate AGE_AND_TEAM = member.age.between(20, 29).and(member.team.name.in("team1", "team2", "team3"));
+    static final Predicate USERNAME_PREFIX = member.username.startsWith("member12");
+
+    @Param("1000000")
+    public int rows;
+
+    @Param("1000")
+    public int teams;
+
+    ConfigurableApplicationContext context;
+    EntityManager em;
+    JPAQueryFactory queryFactory;
+    MemberSnapshot snapshot;
+
+    @Setup(Level.Trial)
+    public void open() {
+        context = SeededDatabase.startContext(
+                "spring.datasource.url=jdbc:h2:file:${java.io.tmpdir}/member-snapshot-benchmark",
+                "spring.jpa.hibernate.ddl-auto=create",
+                "querydsl.snapshot.enabled=true");
+        em = context.getBean(EntityManagerFactory.class).createEntityManager();
+        queryFactory = new JPAQueryFactory(em);
+        snapshot = context.getBean(MemberSnapshot.class);
+
+        em.getTransaction().begin();
+        // H2 는 테이블이 안 바뀌었으면 같은 쿼리의 이전 결과를 그대로 돌려주므로 끔
+        em.createNativeQuery("set optimize_reuse_results 0").executeUpdate();
+        em.getTransaction().commit();
+
+        SeededDatabase.seed(context, teams, rows);
+        snapshot.refresh();
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        em.close();
+        context.close();
+    }
+
+    @Benchmark
+    public long countJpql() {
+        return queryFactory
+                .select(member.count())
+                .from(member)
+                .where(AGE_AND_TEAM)
+                .fetchOne();
+    }
+
+    @Benchmark
+    public long countSnapshot() {
+        return snapshot.count(AGE_AND_TEAM);
+    }
+
+    @Benchmark
+    public Double avgJpql() {
+        return queryFactory
+                .select(member.age.avg())
+                .from(member)
+                .where(USERNAME_PREFIX)
+                .fetchOne();
+    }
+
+    @Benchmark
+    public Number avgSnapshot() {
+        return snapshot.aggregate(member.age.avg(), USERNAME_PREFIX);
+    }
+
+    @Benchmark
+    public List<TeamStatsDto> byTeamJpql() {
+        return queryFactory
+                .select(new QTeamStatsDto(team.id.max(), team.name, member.count(), member.age.sum().longValue(),
+                        member.age.min(), member.age.max()))
+                .from(member)
+                .join(member.team, team)
+                .groupBy(team.name)
+                .orderBy(team.name.asc())
+                .fetch();
+    }
+
+    @Benchmark
+    public List<TeamStatsDto> byTeamSnapshot() {
+        return snapshot.ageStatsByTeamName(null);
+    }
+}
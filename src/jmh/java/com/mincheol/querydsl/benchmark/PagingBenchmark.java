@@ -0,0 +1,93 @@
+package com.mincheol.querydsl.benchmark;
+
+import com.mincheol.querydsl.dto.KeysetPage;
+import com.mincheol.querydsl.entity.Member;
+import com.mincheol.querydsl.repository.MemberCursor;
+import com.mincheol.querydsl.repository.MemberKeysetRepository;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.mincheol.querydsl.entity.QMember.member;
+
+/**
+ * offset 페이징 vs 키셋 페이징 (page 번호별 지연시간)
+ * 키셋은 페이지가 뒤로 가도 지연시간이 거의 같아야 함
+ * 기본 회원 100,000 명 / 페이지 크기 10 이라 page=10000 이 마지막 페이지
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PagingBenchmark {
+
+    static final int SIZE = 10;
+
+    @Param({"1", "10000"})
+    public int page;
+
+    EntityManager em;
+    JPAQueryFactory queryFactory;
+    MemberKeysetRepository keysetRepository;
+    String cursor;
+
+    @Setup(Level.Trial)
+    public void open(SeededDatabase db) {
+        em = db.emf.createEntityManager();
+        queryFactory = new JPAQueryFactory(em);
+        keysetRepository = new MemberKeysetRepository(em);     // offset 쪽과 같은 EntityManager 사용
+
+        // page 직전 페이지의 마지막 회원으로 커서를 만들어 둠 (클라이언트가 앞 페이지를 넘겨 온 상황)
+        if (page > 1) {
+            Member last = queryFactory
+                    .selectFrom(member)
+                    .orderBy(member.username.desc().nullsLast(), member.id.desc())
+                    .offset((long) (page - 1) * SIZE - 1)
+                    .limit(1)
+                    .fetchOne();
+            cursor = MemberCursor.of(last).encode();
+        }
+        em.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        em.close();
+    }
+
+    @Benchmark
+    public List<Member> offset() {
+        List<Member> result = queryFactory
+                .selectFrom(member)
+                .orderBy(member.username.desc().nullsLast(), member.id.desc())
+                .offset((long) (page - 1) * SIZE)
+                .limit(SIZE)
+                .fetch();
+        em.clear();
+        return result;
+    }
+
+    @Benchmark
+    public KeysetPage<Member> keyset() {
+        KeysetPage<Member> result = keysetRepository.findPage(cursor, SIZE);
+        em.clear();
+        return result;
+    }
+}
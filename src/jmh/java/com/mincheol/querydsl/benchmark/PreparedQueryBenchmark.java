@@ -0,0 +1,78 @@
+package com.mincheol.querydsl.benchmark;
+
+import com.mincheol.querydsl.dto.MemberDto;
+import com.mincheol.querydsl.dto.QMemberDto;
+import com.mincheol.querydsl.support.PreparedQuery;
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.mincheol.querydsl.entity.QMember.member;
+
+/**
+ * 호출마다 쿼리를 새로 만들고 직렬화하는 경우 vs PreparedQuery 로 한 번 직렬화한 JPQL 재사용
+ * PK 단건 조회로 실행 비용을 작게 잡아 쿼리 생성 비용이 드러나도록 함
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PreparedQueryBenchmark {
+
+    static final Param<Long> MEMBER_ID = new Param<>(Long.class, "memberId");
+    static final Param<Integer> AGE_GOE = new Param<>(Integer.class, "ageGoe");
+
+    EntityManager em;
+    JPAQueryFactory queryFactory;
+    PreparedQuery<MemberDto> prepared;
+    int cursor;
+
+    @Setup(Level.Trial)
+    public void open(SeededDatabase db) {
+        em = db.emf.createEntityManager();
+        queryFactory = new JPAQueryFactory(em);
+        prepared = PreparedQuery.of(queryFactory
+                .select(new QMemberDto(member.username, member.age))
+                .from(member)
+                .where(member.id.eq(MEMBER_ID), member.age.goe(AGE_GOE)), em);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        em.close();
+    }
+
+    @Benchmark
+    public List<MemberDto> rebuild() {
+        return queryFactory
+                .select(new QMemberDto(member.username, member.age))
+                .from(member)
+                .where(member.id.eq((long) (cursor % 5000 + 1)), member.age.goe(cursor++ % 50))
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> prepared() {
+        return prepared
+                .with(MEMBER_ID, (long) (cursor % 5000 + 1))
+                .with(AGE_GOE, cursor++ % 50)
+                .fetch(em);
+    }
+}
@@ -0,0 +1,131 @@
+package com.mincheol.querydsl.benchmark;
+
+import com.mincheol.querydsl.dto.MemberDto;
+import com.mincheol.querydsl.dto.QMemberDto;
+import com.mincheol.querydsl.dto.UserDto;
+import com.mincheol.querydsl.support.CompiledProjections;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Projections;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.mincheol.querydsl.entity.QMember.member;
+
+/**
+ * row -> DTO 변환 비용만 비교 (DB 조회 제외)
+ * 1M 개의 row(Object[]) 를 각 방식의 FactoryExpression.newInstance 로 변환, 점수는 row 당 시간
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProjectionBenchmark {
+
+    static final int ROWS = 1_000_000;
+
+    Object[][] rows;
+
+    FactoryExpression<MemberDto> reflectiveBean;
+    FactoryExpression<MemberDto> reflectiveFields;
+    FactoryExpression<MemberDto> reflectiveConstructor;
+    FactoryExpression<UserDto> reflectiveAlias;
+    FactoryExpression<MemberDto> queryProjection;
+
+    FactoryExpression<MemberDto> compiledBean;
+    FactoryExpression<MemberDto> compiledFields;
+    FactoryExpression<MemberDto> compiledConstructor;
+    FactoryExpression<UserDto> compiledAlias;
+
+    @Setup
+    public void setUp() {
+        rows = new Object[ROWS][];
+        for (int i = 0; i < ROWS; i++) {
+            rows[i] = new Object[]{"member" + i, i % 100};
+        }
+
+        reflectiveBean = Projections.bean(MemberDto.class, member.username, member.age);
+        reflectiveFields = Projections.fields(MemberDto.class, member.username, member.age);
+        reflectiveConstructor = Projections.constructor(MemberDto.class, member.username, member.age);
+        reflectiveAlias = Projections.fields(UserDto.class, member.username.as("name"), member.age);
+        queryProjection = new QMemberDto(member.username, member.age);
+
+        compiledBean = CompiledProjections.bean(MemberDto.class, member.username, member.age);
+        compiledFields = CompiledProjections.fields(MemberDto.class, member.username, member.age);
+        compiledConstructor = CompiledProjections.constructor(MemberDto.class, member.username, member.age);
+        compiledAlias = CompiledProjections.fields(UserDto.class, member.username.as("name"), member.age);
+    }
+
+    private void map(FactoryExpression<?> projection, Blackhole bh) {
+        for (Object[] row : rows) {
+            bh.consume(projection.newInstance(row));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void reflectiveBean(Blackhole bh) {
+        map(reflectiveBean, bh);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void compiledBean(Blackhole bh) {
+        map(compiledBean, bh);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void reflectiveFields(Blackhole bh) {
+        map(reflectiveFields, bh);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void compiledFields(Blackhole bh) {
+        map(compiledFields, bh);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void reflectiveConstructor(Blackhole bh) {
+        map(reflectiveConstructor, bh);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void compiledConstructor(Blackhole bh) {
+        map(compiledConstructor, bh);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void reflectiveAlias(Blackhole bh) {
+        map(reflectiveAlias, bh);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void compiledAlias(Blackhole bh) {
+        map(compiledAlias, bh);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void queryProjection(Blackhole bh) {
+        map(queryProjection, bh);
+    }
+}
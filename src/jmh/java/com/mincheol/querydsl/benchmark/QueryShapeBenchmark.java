@@ -0,0 +1,254 @@
+package com.mincheol.querydsl.benchmark;
+
+import com.mincheol.querydsl.dto.MemberDto;
+import com.mincheol.querydsl.dto.QMemberDto;
+import com.mincheol.querydsl.entity.Member;
+import com.mincheol.querydsl.entity.QMember;
+import com.querydsl.core.QueryResults;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.dsl.CaseBuilder;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.mincheol.querydsl.entity.QMember.member;
+import static com.mincheol.querydsl.entity.QTeam.team;
+
+/**
+ * QuerydslBasicTest 의 쿼리 모양별 기준 성능
+ * Throughput(ops/s) 와 SampleTime(p50/p90/p99 ...) 을 같이 측정하고, gc 프로파일러로 op 당 할당량을 봄
+ *
+ * ./gradlew jmh -PjmhIncludes=QueryShapeBenchmark
+ * 크기 변경 : java -jar build/libs/querydsl-0.0.1-SNAPSHOT-jmh.jar QueryShapeBenchmark -p members=1000000
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryShapeBenchmark {
+
+    EntityManager em;
+    JPAQueryFactory queryFactory;
+    int members;
+
+    @Setup(Level.Trial)
+    public void open(SeededDatabase db) {
+        em = db.emf.createEntityManager();
+        queryFactory = new JPAQueryFactory(em);
+        members = db.members;
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        em.close();
+    }
+
+    // 매 호출마다 영속성 컨텍스트가 쌓이지 않도록 비움
+    @TearDown(Level.Iteration)
+    public void clear() {
+        em.clear();
+    }
+
+    @Benchmark
+    public Member search() {
+        Member result = queryFactory
+                .selectFrom(member)
+                .where(member.username.eq("member1")
+                        .and(member.age.between(0, 30)))
+                .fetchOne();
+        em.clear();
+        return result;
+    }
+
+    @Benchmark
+    public Member searchAndParam() {
+        Member result = queryFactory
+                .selectFrom(member)
+                .where(member.username.eq("member1"), member.age.eq(1))
+                .fetchOne();
+        em.clear();
+        return result;
+    }
+
+    @Benchmark
+    public List<Member> sort() {
+        List<Member> result = queryFactory
+                .selectFrom(member)
+                .where(member.age.eq(99))
+                .orderBy(member.age.desc(), member.username.asc().nullsLast())
+                .fetch();
+        em.clear();
+        return result;
+    }
+
+    @Benchmark
+    public List<Member> paging() {
+        List<Member> result = queryFactory
+                .selectFrom(member)
+                .orderBy(member.username.desc())
+                .offset(members / 2)
+                .limit(10)
+                .fetch();
+        em.clear();
+        return result;
+    }
+
+    @Benchmark
+    public QueryResults<Member> pagingWithCount() {
+        QueryResults<Member> result = queryFactory
+                .selectFrom(member)
+                .orderBy(member.username.desc())
+                .offset(10)
+                .limit(10)
+                .fetchResults();
+        em.clear();
+        return result;
+    }
+
+    @Benchmark
+    public List<Tuple> aggregation() {
+        return queryFactory
+                .select(member.count(), member.age.sum(), member.age.avg(), member.age.max(), member.age.min())
+                .from(member)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<Tuple> group() {
+        return queryFactory
+                .select(team.name, member.age.avg())
+                .from(member)
+                .join(member.team, team)
+                .groupBy(team.name)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<Member> join() {
+        List<Member> result = queryFactory
+                .selectFrom(member)
+                .join(member.team, team)
+                .where(team.name.eq("team1"))
+                .fetch();
+        em.clear();
+        return result;
+    }
+
+    @Benchmark
+    public List<Tuple> joinOnFiltering() {
+        List<Tuple> result = queryFactory
+                .select(member, team)
+                .from(member)
+                .leftJoin(member.team, team).on(team.name.eq("team1"))
+                .where(member.age.eq(1))
+                .fetch();
+        em.clear();
+        return result;
+    }
+
+    @Benchmark
+    public Member fetchJoin() {
+        Member result = queryFactory
+                .selectFrom(member)
+                .join(member.team, team).fetchJoin()
+                .where(member.username.eq("member1"))
+                .fetchOne();
+        em.clear();
+        return result;
+    }
+
+    @Benchmark
+    public List<Member> subQuery() {
+        QMember memberSub = new QMember("memberSub");
+        List<Member> result = queryFactory
+                .selectFrom(member)
+                .where(member.age.eq(
+                        JPAExpressions.select(memberSub.age.max()).from(memberSub)))
+                .fetch();
+        em.clear();
+        return result;
+    }
+
+    @Benchmark
+    public List<Member> subQueryGoe() {
+        QMember memberSub = new QMember("memberSub");
+        List<Member> result = queryFactory
+                .selectFrom(member)
+                .where(member.age.goe(
+                        JPAExpressions.select(memberSub.age.avg()).from(memberSub)),
+                        member.age.eq(99))
+                .fetch();
+        em.clear();
+        return result;
+    }
+
+    @Benchmark
+    public List<Member> subQueryIn() {
+        QMember memberSub = new QMember("memberSub");
+        List<Member> result = queryFactory
+                .selectFrom(member)
+                .where(member.age.in(
+                        JPAExpressions.select(memberSub.age).from(memberSub).where(memberSub.age.gt(98))))
+                .fetch();
+        em.clear();
+        return result;
+    }
+
+    @Benchmark
+    public List<Tuple> selectSubQuery() {
+        QMember memberSub = new QMember("memberSub");
+        return queryFactory
+                .select(member.username,
+                        JPAExpressions.select(memberSub.age.avg()).from(memberSub))
+                .from(member)
+                .where(member.age.eq(1))
+                .fetch();
+    }
+
+    @Benchmark
+    public List<String> complexCase() {
+        return queryFactory
+                .select(new CaseBuilder()
+                        .when(member.age.between(0, 20)).then("0~20")
+                        .when(member.age.between(21, 30)).then("21~30")
+                        .otherwise("기타"))
+                .from(member)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> projectionBean() {
+        return queryFactory
+                .select(Projections.bean(MemberDto.class, member.username, member.age))
+                .from(member)
+                .where(member.age.eq(1))
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> projectionQueryProjection() {
+        return queryFactory
+                .select(new QMemberDto(member.username, member.age))
+                .from(member)
+                .where(member.age.eq(1))
+                .fetch();
+    }
+}
@@ -0,0 +1,113 @@
+package com.mincheol.querydsl.benchmark;
+
+import com.mincheol.querydsl.QuerydslApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 검색 API 부하 테스트 : /v1 (Tomcat 스레드가 JDBC 를 기다림) vs /v2 (BlockingQueryExecutor)
+ * 클라이언트 31 개가 쉬지 않고 검색을 보내는 동안 1 개는 DB 를 안 쓰는 /actuator/health 를 호출해서
+ * 둘 다의 지연시간 분포(p99)를 봄. Tomcat 스레드는 tomcatThreads 개로 제한
+ * 응답 코드별 건수(200/503)는 끝날 때 출력함
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class SearchApiLoadBenchmark {
+
+    @Param({"v1", "v2"})
+    public String api;
+
+    @Param("16")
+    public int tomcatThreads;
+
+    ConfigurableApplicationContext context;
+    URL search;
+    URL health;
+
+    final AtomicLong ok = new AtomicLong();
+    final AtomicLong unavailable = new AtomicLong();
+    final AtomicLong other = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        context = new SpringApplicationBuilder(QuerydslApplication.class)
+                .properties("logging.level.root=warn", "spring.main.banner-mode=off",
+                        "server.port=0",
+                        "server.tomcat.threads.max=" + tomcatThreads,
+                        "management.health.db.enabled=false")
+                .run();
+        SeededDatabase.seed(context, 100, 100_000);
+
+        String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        search = new URL(base + "/" + api + "/members?teamName=team7&ageGoe=50&limit=20");
+        health = new URL(base + "/actuator/health");
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        System.out.printf("%n%s responses: 200=%d 503=%d other=%d%n", api, ok.get(), unavailable.get(), other.get());
+        context.close();
+    }
+
+    @Benchmark
+    @Group("load")
+    @GroupThreads(31)
+    public int search() throws IOException {
+        int status = get(search);
+        if (status == 200) {
+            ok.incrementAndGet();
+        } else if (status == 503) {
+            unavailable.incrementAndGet();
+        } else {
+            other.incrementAndGet();
+        }
+        return status;
+    }
+
+    @Benchmark
+    @Group("load")
+    @GroupThreads(1)
+    public int health() throws IOException {
+        return get(health);
+    }
+
+    private static int get(URL url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        int status = connection.getResponseCode();
+        try (InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            if (body != null) {
+                byte[] buffer = new byte[8192];
+                while (body.read(buffer) != -1) {
+                    // keep-alive 로 커넥션을 재사용하려면 응답을 끝까지 읽어야 함
+                }
+            }
+        }
+        return status;
+    }
+}
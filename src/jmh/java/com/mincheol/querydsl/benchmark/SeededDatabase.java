@@ -0,0 +1,59 @@
+package com.mincheol.querydsl.benchmark;
+
+import com.mincheol.querydsl.QuerydslApplication;
+import com.mincheol.querydsl.seed.DataSeeder;
+import com.mincheol.querydsl.seed.SeedSpec;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+
+/**
+ * 벤치마크용 임베디드 H2 + 스프링 컨텍스트
+ * 팀 teams 개, 회원 members 명을 DataSeeder 로 넣어둠 (회원 i : username "member{i}", age i % 100, 팀 i % teams)
+ * 크기는 -p teams=...,members=... 로 바꿀 수 있음
+ */
+@State(Scope.Benchmark)
+public class SeededDatabase {
+
+    @Param("100")
+    public int teams;
+
+    @Param("100000")
+    public int members;
+
+    public ConfigurableApplicationContext context;
+    public EntityManagerFactory emf;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = startContext();
+        emf = context.getBean(EntityManagerFactory.class);
+        seed(context, teams, members);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    // properties 는 "key=value". builder.properties() 는 기본값이라 application.properties 에 있는 키를 못 바꾸므로 실행 인자(--key=value)로 넘김
+    static ConfigurableApplicationContext startContext(String... properties) {
+        return new SpringApplicationBuilder(QuerydslApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("logging.level.root=warn", "spring.main.banner-mode=off")
+                .run(Arrays.stream(properties).map(property -> "--" + property).toArray(String[]::new));
+    }
+
+    static void seed(ConfigurableApplicationContext context, int teams, long members) {
+        context.getBean(DataSeeder.class).seed(new SeedSpec().setTeams(teams).setMembers(members));
+    }
+}
@@ -0,0 +1,114 @@
+package com.mincheol.querydsl.benchmark;
+
+import com.mincheol.querydsl.entity.QMember;
+import com.mincheol.querydsl.support.SubqueryOptimizer;
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.mincheol.querydsl.entity.QMember.member;
+
+/**
+ * QuerydslBasicTest 의 서브쿼리 모양 : 그대로 실행 vs SubqueryOptimizer 로 바꿔서 실행 (optimized)
+ * optimized 쪽은 서브쿼리를 먼저 실행하는 시간까지 포함
+ *
+ * java -jar build/libs/querydsl-0.0.1-SNAPSHOT-jmh.jar SubqueryBenchmark -p members=1000000
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SubqueryBenchmark {
+
+    @Param({"false", "true"})
+    public boolean optimized;
+
+    EntityManager em;
+    JPAQueryFactory queryFactory;
+    SubqueryOptimizer subqueryOptimizer;
+
+    QMember memberSub = new QMember("memberSub");
+
+    @Setup(Level.Trial)
+    public void open(SeededDatabase db) {
+        em = db.emf.createEntityManager();
+        queryFactory = new JPAQueryFactory(em);
+        subqueryOptimizer = new SubqueryOptimizer(em, 1000);
+    }
+
+    /**
+     * H2 는 DB 가 안 바뀌었으면 같은 쿼리(서브쿼리 포함)의 이전 결과를 그대로 돌려줌.
+     * optimize_reuse_results 0 으로 끄면 쿼리 한 번 안에서도 서브쿼리를 row 마다 다시 실행해서 (in 서브쿼리가 10만 명에서도 끝나지 않음)
+     * 캐시는 켜두고 매 호출 전에 member 의 row 하나를 값 그대로 update 해서 이전 호출의 결과만 무효화함 (캐시는 테이블 단위)
+     */
+    @Setup(Level.Invocation)
+    public void invalidateResultCache() {
+        em.getTransaction().begin();
+        em.createNativeQuery("update member set age = age where member_id = (select min(member_id) from member)").executeUpdate();
+        em.getTransaction().commit();
+        em.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        em.close();
+    }
+
+    // 나이가 평균 이상인 회원 수
+    @Benchmark
+    public Long subQueryGoe() {
+        return run(queryFactory
+                .select(member.count())
+                .from(member)
+                .where(member.age.goe(JPAExpressions.select(memberSub.age.avg()).from(memberSub))))
+                .fetchOne();
+    }
+
+    // 회원마다 전체 평균 나이를 같이 조회 (1,000 명)
+    @Benchmark
+    public List<Tuple> selectSubQuery() {
+        return run(queryFactory
+                .select(member.username, JPAExpressions.select(memberSub.age.avg()).from(memberSub))
+                .from(member)
+                .orderBy(member.id.asc())
+                .limit(1000))
+                .fetch();
+    }
+
+    // username 이 member1 로 시작하는 회원들의 나이 중 하나인 회원 수
+    @Benchmark
+    public Long inSubQuery() {
+        return run(queryFactory
+                .select(member.count())
+                .from(member)
+                .where(member.age.in(JPAExpressions
+                        .select(memberSub.age)
+                        .from(memberSub)
+                        .where(memberSub.username.startsWith("member1")))))
+                .fetchOne();
+    }
+
+    private <T> JPAQuery<T> run(JPAQuery<T> query) {
+        return optimized ? subqueryOptimizer.optimize(query) : query;
+    }
+}
@@ -0,0 +1,62 @@
+package com.mincheol.querydsl.benchmark;
+
+import com.mincheol.querydsl.dto.TeamStatsDto;
+import com.mincheol.querydsl.stats.TeamStatsRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 팀별 count/sum/avg/min/max : member group by vs team_stats 조회
+ * team_stats 는 시드 데이터를 넣을 때 TeamStatsListener 가 채움
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TeamStatsBenchmark {
+
+    EntityManager em;
+    TeamStatsRepository teamStatsRepository;
+
+    @Setup(Level.Trial)
+    public void open(SeededDatabase db) {
+        em = db.emf.createEntityManager();
+        teamStatsRepository = new TeamStatsRepository(em);
+
+        // H2 는 테이블이 안 바뀌었으면 같은 쿼리의 이전 결과를 그대로 돌려주므로 끔 (매번 group by 하게)
+        em.getTransaction().begin();
+        em.createNativeQuery("set optimize_reuse_results 0").executeUpdate();
+        em.getTransaction().commit();
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        em.close();
+    }
+
+    @Benchmark
+    public List<TeamStatsDto> groupBy() {
+        return teamStatsRepository.aggregate();
+    }
+
+    @Benchmark
+    public List<TeamStatsDto> teamStats() {
+        return teamStatsRepository.findAll();
+    }
+}
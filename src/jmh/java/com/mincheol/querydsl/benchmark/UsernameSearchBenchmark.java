@@ -0,0 +1,117 @@
+package com.mincheol.querydsl.benchmark;
+
+import com.mincheol.querydsl.dto.MemberDto;
+import com.mincheol.querydsl.dto.QMemberDto;
+import com.mincheol.querydsl.repository.MemberUsernameSearchRepository;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Timeout;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.mincheol.querydsl.entity.QMember.member;
+
+/**
+ * username 자동완성 검색 지연시간 : like 그대로 vs MemberUsernameSearchRepository (n-gram 색인)
+ * - prefix : username like 'member12345%' (username 인덱스 범위 검색, 색인 불필요)
+ * - infix  : username like '%r12345%' -> 스캔 vs 색인에서 가장 드문 조각의 회원만 확인
+ * - infixMiss : 없는 검색어 '%x12%' -> 스캔은 끝까지 읽음 vs 색인에 없는 조각이라 바로 끝
+ * 1~2 글자 검색어는 색인을 쓰지 않으므로(UsernameIndex) 따로 재지 않음
+ * 회원은 DataSeeder 로 넣음 (회원 i : username "member{i}"). 조각이 username 길이 - 2 개씩 생겨서
+ * 회원 rows 명이면 색인은 11 * rows 행 정도. 기본 1,000,000 명 (-p rows=... 로 바꿀 수 있음)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@Timeout(time = 30, timeUnit = TimeUnit.MINUTES)    // 첫 iteration 에 데이터/색인 넣는 시간이 포함됨
+public class UsernameSearchBenchmark {
+
+    static final int LIMIT = 20;
+
+    @Param("1000000")
+    public int rows;
+
+    ConfigurableApplicationContext context;
+    EntityManager em;
+    JPAQueryFactory queryFactory;
+    MemberUsernameSearchRepository memberUsernameSearchRepository;
+
+    @Setup(Level.Trial)
+    public void open() {
+        context = SeededDatabase.startContext(
+                "spring.datasource.url=jdbc:h2:file:${java.io.tmpdir}/username-search-benchmark",
+                "spring.jpa.hibernate.ddl-auto=create",
+                "querydsl.username-index.enabled=true");
+        em = context.getBean(EntityManagerFactory.class).createEntityManager();
+        queryFactory = new JPAQueryFactory(em);
+        memberUsernameSearchRepository = context.getBean(MemberUsernameSearchRepository.class);
+
+        em.getTransaction().begin();
+        // H2 는 테이블이 안 바뀌었으면 같은 쿼리의 이전 결과를 그대로 돌려주므로 끔
+        em.createNativeQuery("set optimize_reuse_results 0").executeUpdate();
+        em.getTransaction().commit();
+
+        SeededDatabase.seed(context, 1000, rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        em.close();
+        context.close();
+    }
+
+    @Benchmark
+    public List<MemberDto> prefixRepository() {
+        return memberUsernameSearchRepository.findByUsernamePrefix("member12345", LIMIT);
+    }
+
+    @Benchmark
+    public List<MemberDto> infixLike() {
+        return like(member.username.contains("r12345"));
+    }
+
+    @Benchmark
+    public List<MemberDto> infixIndexed() {
+        return memberUsernameSearchRepository.findByUsernameContaining("r12345", LIMIT);
+    }
+
+    @Benchmark
+    public List<MemberDto> infixMissLike() {
+        return like(member.username.contains("x12"));
+    }
+
+    @Benchmark
+    public List<MemberDto> infixMissIndexed() {
+        return memberUsernameSearchRepository.findByUsernameContaining("x12", LIMIT);
+    }
+
+    private List<MemberDto> like(Predicate predicate) {
+        return queryFactory
+                .select(new QMemberDto(member.username, member.age))
+                .from(member)
+                .where(predicate)
+                .orderBy(member.id.asc())
+                .limit(LIMIT)
+                .fetch();
+    }
+}
@@ -0,0 +1,19 @@
+package com.mincheol.querydsl.config;
+
+import com.mincheol.querydsl.metrics.InstrumentedJPAQueryFactory;
+import com.mincheol.querydsl.metrics.QueryMetrics;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.persistence.EntityManager;
+
+@Configuration
+public class QuerydslConfig {
+
+    // 주입받는 EntityManager 는 트랜잭션마다 실제 EntityManager 로 위임하는 프록시라 싱글톤으로 써도 됨
+    @Bean
+    public JPAQueryFactory jpaQueryFactory(EntityManager em, QueryMetrics queryMetrics) {
+        return new InstrumentedJPAQueryFactory(em, queryMetrics);
+    }
+}
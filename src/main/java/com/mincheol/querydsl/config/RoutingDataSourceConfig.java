@@ -0,0 +1,73 @@
+package com.mincheol.querydsl.config;
+
+import com.mincheol.querydsl.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 읽기/쓰기 DataSource 분리 (querydsl.routing.enabled=true 일 때만)
+ * JPA 가 쓰는 DataSource = LazyConnectionDataSourceProxy(ReplicaRoutingDataSource)
+ * - @Transactional(readOnly = true) 안의 쿼리 -> replica
+ * - 그 외 -> primary (spring.datasource.*)
+ * 스키마 생성(ddl-auto) 도 트랜잭션 밖이라 primary 에서만 실행됨
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "querydsl.routing", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(RoutingDataSourceProperties.class)
+public class RoutingDataSourceConfig {
+
+    @Bean(destroyMethod = "close")
+    public ReplicaRoutingDataSource routingDataSource(DataSourceProperties primaryProperties,
+                                                      RoutingDataSourceProperties routing,
+                                                      MeterRegistry registry) {
+        HikariDataSource primary = primaryProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        List<RoutingDataSourceProperties.Replica> replicaProperties = routing.getReplicas();
+        for (int i = 0; i < replicaProperties.size(); i++) {
+            String name = "replica-" + (i + 1);
+            replicas.put(name, replica(name, replicaProperties.get(i), primaryProperties, routing));
+        }
+
+        return new ReplicaRoutingDataSource(primary, replicas,
+                routing.getHealthCheckInterval(), routing.getConnectionTimeout(), registry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    private static HikariDataSource replica(String name, RoutingDataSourceProperties.Replica replica,
+                                            DataSourceProperties primaryProperties, RoutingDataSourceProperties routing) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl(replica.getUrl());
+        if (StringUtils.hasText(replica.getUsername())) {
+            dataSource.setUsername(replica.getUsername());
+            dataSource.setPassword(replica.getPassword());
+        } else {
+            dataSource.setUsername(primaryProperties.determineUsername());
+            dataSource.setPassword(primaryProperties.determinePassword());
+        }
+        dataSource.setReadOnly(true);
+        dataSource.setConnectionTimeout(routing.getConnectionTimeout().toMillis());
+        dataSource.setValidationTimeout(routing.getConnectionTimeout().toMillis());
+        return dataSource;
+    }
+}
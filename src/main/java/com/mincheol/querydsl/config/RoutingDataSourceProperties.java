@@ -0,0 +1,36 @@
+package com.mincheol.querydsl.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * querydsl.routing.enabled=true
+ * querydsl.routing.replicas[0].url=jdbc:h2:tcp://replica1/...
+ * querydsl.routing.replicas[1].url=jdbc:h2:tcp://replica2/...
+ *
+ * primary 는 spring.datasource.* 를 그대로 사용. replica 의 username/password 를 비우면 primary 것을 씀
+ */
+@Data
+@ConfigurationProperties("querydsl.routing")
+public class RoutingDataSourceProperties {
+
+    private boolean enabled;
+    private List<Replica> replicas = new ArrayList<>();
+
+    // replica 상태 검사 주기
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+    // replica 커넥션 획득/검사 제한 시간. 죽은 replica 때문에 읽기 요청이 오래 기다리지 않도록 짧게 둠
+    private Duration connectionTimeout = Duration.ofSeconds(1);
+
+    @Data
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
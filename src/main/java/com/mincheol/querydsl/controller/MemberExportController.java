@@ -0,0 +1,45 @@
+package com.mincheol.querydsl.controller;
+
+import com.mincheol.querydsl.service.MemberExportService;
+import com.mincheol.querydsl.service.MemberExportService.Format;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * 회원 전체 내보내기 (스트리밍)
+ * 응답은 MVC async 스레드에서 쓰고, 커서가 열려 있는 동안 커넥션 하나를 씀
+ * 오래 걸리는 응답이라 spring.mvc.async.request-timeout 을 넉넉히 잡아 둠
+ */
+@RestController
+@RequiredArgsConstructor
+public class MemberExportController {
+
+    static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final MemberExportService memberExportService;
+
+    @GetMapping("/v1/members/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "ndjson") String format) {
+        Format exportFormat = format(format);
+        StreamingResponseBody body = out -> memberExportService.export(out, exportFormat);
+
+        return ResponseEntity.ok()
+                .contentType(exportFormat == Format.NDJSON ? NDJSON : MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    private static Format format(String format) {
+        try {
+            return Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "format must be ndjson or array");
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.mincheol.querydsl.controller;
+
+import com.mincheol.querydsl.dto.MemberDto;
+import com.mincheol.querydsl.dto.MemberSearchCondition;
+import com.mincheol.querydsl.dto.TeamStatsDto;
+import com.mincheol.querydsl.repository.MemberQueryRepository;
+import com.mincheol.querydsl.stats.TeamStatsRepository;
+import com.mincheol.querydsl.support.BlockingQueryExecutor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 회원/팀 검색 API
+ * - /v1 : 요청 스레드(Tomcat)가 JDBC 응답까지 그대로 기다림 (thread-per-request)
+ * - /v2 : BlockingQueryExecutor 에서 실행하고 요청 스레드는 바로 반납 (servlet async)
+ *         실행 대기열이 차면 503, 타임아웃이면 statement 를 cancel 하고 503 (QueryExceptionHandler)
+ */
+@RestController
+@RequiredArgsConstructor
+public class MemberSearchController {
+
+    static final int MAX_LIMIT = 100;
+
+    private final MemberQueryRepository memberQueryRepository;
+    private final TeamStatsRepository teamStatsRepository;
+    private final BlockingQueryExecutor queryExecutor;
+
+    @Transactional(readOnly = true)
+    @GetMapping("/v1/members")
+    public List<MemberDto> searchMembersV1(MemberSearchCondition condition,
+                                           @RequestParam(defaultValue = "20") int limit) {
+        return memberQueryRepository.search(condition, limit(limit));
+    }
+
+    @Transactional(readOnly = true)
+    @GetMapping("/v1/teams/stats")
+    public List<TeamStatsDto> teamStatsV1() {
+        return teamStatsRepository.findAll();
+    }
+
+    @GetMapping("/v2/members")
+    public CompletableFuture<List<MemberDto>> searchMembersV2(MemberSearchCondition condition,
+                                                             @RequestParam(defaultValue = "20") int limit) {
+        int size = limit(limit);
+        return queryExecutor.submit(() -> memberQueryRepository.search(condition, size));
+    }
+
+    @GetMapping("/v2/teams/stats")
+    public CompletableFuture<List<TeamStatsDto>> teamStatsV2() {
+        return queryExecutor.submit(teamStatsRepository::findAll);
+    }
+
+    private static int limit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+}
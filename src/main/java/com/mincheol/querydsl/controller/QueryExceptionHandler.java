@@ -0,0 +1,35 @@
+package com.mincheol.querydsl.controller;
+
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 쿼리 실행기가 거절/타임아웃한 요청은 503 (클라이언트가 잠시 후 재시도하도록 Retry-After)
+ */
+@RestControllerAdvice
+public class QueryExceptionHandler {
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Map<String, String>> rejected(RejectedExecutionException e) {
+        return unavailable("too many requests in flight");
+    }
+
+    @ExceptionHandler(QueryTimeoutException.class)
+    public ResponseEntity<Map<String, String>> timeout(QueryTimeoutException e) {
+        return unavailable("query timed out");
+    }
+
+    private static ResponseEntity<Map<String, String>> unavailable(String message) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Collections.singletonMap("message", message));
+    }
+}
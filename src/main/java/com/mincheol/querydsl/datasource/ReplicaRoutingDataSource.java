@@ -0,0 +1,126 @@
+package com.mincheol.querydsl.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 읽기 전용 트랜잭션은 replica 로, 그 외(쓰기, 트랜잭션 밖)는 primary 로 보내는 DataSource
+ * - replica 는 라운드 로빈으로 고르고, 커넥션을 못 얻으면 바로 제외한 뒤 다음 replica 로 넘어감
+ * - healthCheckInterval 마다 모든 replica 에 커넥션 검사를 해서 제외/복귀시킴
+ * - 쓸 수 있는 replica 가 없으면 primary 로 보냄 (datasource.routing.fallback)
+ *
+ * 트랜잭션의 readOnly 여부는 트랜잭션 매니저가 커넥션을 준비한 뒤에 정해지므로
+ * 반드시 LazyConnectionDataSourceProxy 로 감싸서 첫 쿼리 시점에 커넥션을 고르게 해야 함
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    static final String PRIMARY = "primary";
+
+    private final RoutingTarget primary;
+    private final List<RoutingTarget> replicas = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter fallback;
+    private final ScheduledExecutorService healthChecker;
+    private final int validationTimeoutSeconds;
+
+    /**
+     * @param replicas 이름 -> DataSource (순서대로 라운드 로빈)
+     */
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+                                    Duration healthCheckInterval, Duration validationTimeout, MeterRegistry registry) {
+        this.primary = new RoutingTarget(PRIMARY, primary, registry);
+        for (Map.Entry<String, DataSource> replica : new LinkedHashMap<>(replicas).entrySet()) {
+            this.replicas.add(new RoutingTarget(replica.getKey(), replica.getValue(), registry));
+        }
+        this.fallback = Counter.builder("datasource.routing.fallback").register(registry);
+        this.validationTimeoutSeconds = (int) Math.max(1, validationTimeout.getSeconds());
+
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = healthCheckInterval.toMillis();
+        healthChecker.scheduleWithFixedDelay(this::checkReplicas, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return primary.getConnection();
+        }
+
+        for (int i = 0; i < replicas.size(); i++) {
+            RoutingTarget replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+            if (!replica.isHealthy()) {
+                continue;
+            }
+            try {
+                return replica.getConnection();
+            } catch (SQLException e) {
+                replica.eject(e);
+            }
+        }
+
+        fallback.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new UnsupportedOperationException("routing datasource uses the credentials of each target");
+    }
+
+    /**
+     * 커넥션을 얻고 isValid 가 true 면 라우팅 대상, 아니면 제외
+     */
+    void checkReplicas() {
+        for (RoutingTarget replica : replicas) {
+            try (Connection connection = replica.getDataSource().getConnection()) {
+                if (connection.isValid(validationTimeoutSeconds)) {
+                    replica.reinstate();
+                } else {
+                    replica.eject(new SQLException("connection is not valid"));
+                }
+            } catch (SQLException | RuntimeException e) {
+                replica.eject(e);
+            }
+        }
+    }
+
+    List<RoutingTarget> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    public void close() throws IOException {
+        healthChecker.shutdownNow();
+        closeIfPossible(primary.getDataSource());
+        for (RoutingTarget replica : replicas) {
+            closeIfPossible(replica.getDataSource());
+        }
+    }
+
+    private static void closeIfPossible(DataSource dataSource) throws IOException {
+        if (dataSource instanceof Closeable) {
+            ((Closeable) dataSource).close();
+        }
+    }
+}
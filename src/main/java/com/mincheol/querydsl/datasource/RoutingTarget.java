@@ -0,0 +1,87 @@
+package com.mincheol.querydsl.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * 라우팅 대상 하나 (primary 또는 replica)
+ * - datasource.routing.connections{target} : 이 대상에서 꺼낸 커넥션 수
+ * - datasource.routing.statements{target}  : 이 대상에서 만든 JDBC 문장 수
+ * - datasource.routing.healthy{target}     : 1 = 라우팅 대상, 0 = 제외됨
+ */
+@Slf4j
+class RoutingTarget {
+
+    private final String name;
+    private final DataSource dataSource;
+    private final Counter connections;
+    private final Counter statements;
+    private volatile boolean healthy = true;
+
+    RoutingTarget(String name, DataSource dataSource, MeterRegistry registry) {
+        this.name = name;
+        this.dataSource = dataSource;
+        this.connections = Counter.builder("datasource.routing.connections").tag("target", name).register(registry);
+        this.statements = Counter.builder("datasource.routing.statements").tag("target", name).register(registry);
+        Gauge.builder("datasource.routing.healthy", this, target -> target.healthy ? 1 : 0)
+                .tag("target", name)
+                .register(registry);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    DataSource getDataSource() {
+        return dataSource;
+    }
+
+    boolean isHealthy() {
+        return healthy;
+    }
+
+    Connection getConnection() throws SQLException {
+        Connection connection = dataSource.getConnection();
+        connections.increment();
+        return countingStatements(connection);
+    }
+
+    void eject(Exception cause) {
+        if (healthy) {
+            log.warn("datasource {} ejected from routing: {}", name, cause.toString());
+        }
+        healthy = false;
+    }
+
+    void reinstate() {
+        if (!healthy) {
+            log.info("datasource {} back in routing", name);
+        }
+        healthy = true;
+    }
+
+    private Connection countingStatements(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    String methodName = method.getName();
+                    if (methodName.equals("createStatement") || methodName.equals("prepareStatement") || methodName.equals("prepareCall")) {
+                        statements.increment();
+                    } else if (methodName.equals("unwrap") && args[0] == Connection.class) {
+                        return connection;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
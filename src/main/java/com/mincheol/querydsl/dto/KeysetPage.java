@@ -0,0 +1,27 @@
+package com.mincheol.querydsl.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * 키셋(seek) 페이징 결과
+ * nextCursor 가 null 이면 마지막 페이지
+ */
+@Getter
+@ToString
+public class KeysetPage<T> {
+
+    private final List<T> content;
+    private final String nextCursor;
+
+    public KeysetPage(List<T> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,16 @@
+package com.mincheol.querydsl.dto;
+
+import lombok.Data;
+
+/**
+ * 회원 검색 조건. null 인 조건은 where 절에서 무시됨
+ */
+@Data
+public class MemberSearchCondition {
+
+    private String username;
+    private String usernamePrefix;
+    private String teamName;
+    private Integer ageGoe;
+    private Integer ageLoe;
+}
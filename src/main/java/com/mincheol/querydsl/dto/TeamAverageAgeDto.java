@@ -0,0 +1,17 @@
+package com.mincheol.querydsl.dto;
+
+import com.querydsl.core.annotations.QueryProjection;
+import lombok.Data;
+
+@Data
+public class TeamAverageAgeDto {
+
+    private String teamName;
+    private double averageAge;
+
+    @QueryProjection
+    public TeamAverageAgeDto(String teamName, double averageAge) {
+        this.teamName = teamName;
+        this.averageAge = averageAge;
+    }
+}
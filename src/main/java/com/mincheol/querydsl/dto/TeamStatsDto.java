@@ -0,0 +1,27 @@
+package com.mincheol.querydsl.dto;
+
+import com.querydsl.core.annotations.QueryProjection;
+import lombok.Data;
+
+@Data
+public class TeamStatsDto {
+
+    private Long teamId;
+    private String teamName;
+    private long count;
+    private long sum;
+    private Double avg;
+    private Integer min;
+    private Integer max;
+
+    @QueryProjection
+    public TeamStatsDto(Long teamId, String teamName, long count, long sum, Integer min, Integer max) {
+        this.teamId = teamId;
+        this.teamName = teamName;
+        this.count = count;
+        this.sum = sum;
+        this.avg = count == 0 ? null : (double) sum / count;
+        this.min = min;
+        this.max = max;
+    }
+}
@@ -5,7 +5,9 @@ import lombok.Setter;
 
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
 
 @Entity
 @Getter
@@ -13,6 +15,7 @@ import javax.persistence.Id;
 public class Hello {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "hello_seq_generator")
+    @SequenceGenerator(name = "hello_seq_generator", sequenceName = "hello_seq", allocationSize = 50)
     private Long id;
 }
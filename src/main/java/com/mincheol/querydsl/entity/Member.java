@@ -1,10 +1,19 @@
 package com.mincheol.querydsl.entity;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "member")
+@NamedEntityGraph(name = "Member.team", attributeNodes = @NamedAttributeNode("team"))
+@Table(indexes = {
+        @Index(name = "idx_member_username_id", columnList = "username desc, member_id desc"),  // 키셋 페이징 정렬키, username 검색
+        @Index(name = "idx_member_age_id", columnList = "age, member_id")                        // 나이 범위 검색
+})
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
@@ -12,7 +21,8 @@ import javax.persistence.*;
 public class Member {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+    @SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 50)
     @Column(name = "member_id")
     private Long id;
     private String username;
@@ -0,0 +1,51 @@
+package com.mincheol.querydsl.entity;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Synchronize;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.io.Serializable;
+
+/**
+ * username 검색용 n-gram 색인 (gram -> member_id)
+ * username 의 3 글자 조각 (겹치게). "member1" -> mem, emb, mbe, ber, er1
+ * Member 가 저장/수정/삭제될 때 UsernameGramListener 가 같은 트랜잭션 안에서 갱신함. 애플리케이션에서 직접 수정하지 않음
+ * PK (gram, member_id) 가 검색 인덱스, member_id 인덱스는 회원 삭제/수정 시 기존 조각을 지우는 용도
+ */
+@Entity
+@Immutable
+@Synchronize("member")
+@IdClass(MemberUsernameGram.Key.class)
+@Table(name = "member_username_gram", indexes = @Index(name = "idx_member_username_gram_member", columnList = "member_id"))
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class MemberUsernameGram {
+
+    @Id
+    @Column(length = 3)
+    private String gram;
+
+    @Id
+    @Column(name = "member_id")
+    private Long memberId;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String gram;
+        private Long memberId;
+    }
+}
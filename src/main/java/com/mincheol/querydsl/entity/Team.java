@@ -1,12 +1,19 @@
 package com.mincheol.querydsl.entity;
 
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "team")  // 2차 캐시 (리전 설정은 application.conf)
+@NamedEntityGraph(name = "Team.members", attributeNodes = @NamedAttributeNode("members"))
+@Table(indexes = @Index(name = "idx_team_name", columnList = "name"))
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)  // JPA 는 기본생성자 필요
@@ -14,11 +21,14 @@ import java.util.List;
 public class Team {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "team_seq_generator")
+    @SequenceGenerator(name = "team_seq_generator", sequenceName = "team_seq", allocationSize = 50)
     @Column(name = "team_id")
     private Long id;
     private String name;
 
+    @BatchSize(size = 100)  // 여러 팀의 members 를 in 절 한 번으로 초기화
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "team-members")  // 회원 id 목록만 캐시, 회원은 Member 캐시에서 읽음
     @OneToMany(mappedBy = "team")
     List<Member> members = new ArrayList<>();
 
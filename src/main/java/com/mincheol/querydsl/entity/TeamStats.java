@@ -0,0 +1,35 @@
+package com.mincheol.querydsl.entity;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Synchronize;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * 팀별 회원 나이 통계 (읽기 모델)
+ * Member 가 저장/수정/삭제될 때 TeamStatsListener 가 같은 트랜잭션 안에서 갱신함. 애플리케이션에서 직접 수정하지 않음
+ * 팀이 삭제되어도 FK 가 없어서 막지 않도록 team 연관관계 대신 team_id 값만 가짐
+ */
+@Entity
+@Immutable
+@Synchronize("member")   // TeamStats 조회 전에 아직 flush 안 된 Member 변경을 먼저 flush (그래야 통계에 반영됨)
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class TeamStats {
+
+    @Id
+    @Column(name = "team_id")
+    private Long teamId;
+
+    private long memberCount;
+    private long ageSum;
+    private Integer ageMin;     // 회원이 없으면 null
+    private Integer ageMax;
+}
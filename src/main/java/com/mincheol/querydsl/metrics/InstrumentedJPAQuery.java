@@ -0,0 +1,48 @@
+package com.mincheol.querydsl.metrics;
+
+import com.querydsl.core.NonUniqueResultException;
+import com.querydsl.core.QueryResults;
+import com.querydsl.jpa.impl.JPAQuery;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+/**
+ * fetch 계열 메서드 실행을 QueryMetrics 로 기록하는 JPAQuery
+ */
+public class InstrumentedJPAQuery<T> extends JPAQuery<T> {
+
+    private final EntityManager em;
+    private final QueryMetrics metrics;
+
+    public InstrumentedJPAQuery(EntityManager em, QueryMetrics metrics) {
+        super(em);
+        this.em = em;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public List<T> fetch() {
+        return metrics.recordQuery(shape(), em, super::fetch, List::size);
+    }
+
+    @Override
+    public T fetchOne() throws NonUniqueResultException {
+        return metrics.recordQuery(shape(), em, super::fetchOne, row -> 1);
+    }
+
+    @Override
+    public QueryResults<T> fetchResults() {
+        return metrics.recordQuery(shape(), em, super::fetchResults, results -> results.getResults().size());
+    }
+
+    @Override
+    public long fetchCount() {
+        return metrics.recordQuery(shape(), em, super::fetchCount, count -> 1);
+    }
+
+    // fetch 후에는 projection 이 초기화되므로 실행 전에 JPQL 을 만들어 둠
+    private String shape() {
+        return toString().replaceAll("\\s+", " ");
+    }
+}
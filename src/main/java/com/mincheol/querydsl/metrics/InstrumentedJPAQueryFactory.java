@@ -0,0 +1,27 @@
+package com.mincheol.querydsl.metrics;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+
+import javax.persistence.EntityManager;
+
+/**
+ * select/selectFrom/from 으로 만든 모든 쿼리가 InstrumentedJPAQuery 가 되는 JPAQueryFactory
+ * new JPAQueryFactory(em) 대신 사용
+ */
+public class InstrumentedJPAQueryFactory extends JPAQueryFactory {
+
+    private final EntityManager em;
+    private final QueryMetrics metrics;
+
+    public InstrumentedJPAQueryFactory(EntityManager em, QueryMetrics metrics) {
+        super(em);
+        this.em = em;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public JPAQuery<?> query() {
+        return new InstrumentedJPAQuery<Void>(em, metrics);
+    }
+}
@@ -0,0 +1,119 @@
+package com.mincheol.querydsl.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * 쿼리 단위 메트릭
+ * - querydsl.query            : 실행 시간 (tag shape = 파라미터가 바인딩되기 전의 JPQL)
+ * - querydsl.query.rows       : 반환 row 수
+ * - querydsl.query.entities   : 영속성 컨텍스트에 새로 올라간 엔티티 수
+ * - querydsl.query.statements : 실제 실행된 JDBC 문장 수
+ * - querydsl.unit.*           : track() 으로 묶은 작업 단위 (지연 로딩 포함)
+ *
+ * slow-query-threshold 를 넘거나, 같은 SQL 이 repeated-statement-threshold 번 이상 반복되면(N+1 의심) 경고 로그.
+ * shape 태그는 코드에 있는 쿼리 모양 수만큼만 생기지만, 동적 쿼리 조합이 많다면 태그 수를 확인할 것.
+ */
+@Slf4j
+@Component
+public class QueryMetrics {
+
+    private final MeterRegistry registry;
+    private final Duration slowQueryThreshold;
+    private final int repeatedStatementThreshold;
+
+    public QueryMetrics(MeterRegistry registry,
+                        @Value("${querydsl.metrics.slow-query-threshold:500ms}") Duration slowQueryThreshold,
+                        @Value("${querydsl.metrics.repeated-statement-threshold:10}") int repeatedStatementThreshold) {
+        this.registry = registry;
+        this.slowQueryThreshold = slowQueryThreshold;
+        this.repeatedStatementThreshold = repeatedStatementThreshold;
+    }
+
+    public <T> T recordQuery(String shape, EntityManager em, Supplier<T> execution, ToIntFunction<T> rowCounter) {
+        int managedBefore = managedEntities(em);
+        long start = System.nanoTime();
+
+        T result;
+        int statements;
+        Map<String, Integer> repeated;
+        try (StatementLog statementLog = SqlStatementInspector.open()) {
+            result = execution.get();
+            statements = statementLog.getTotal();
+            repeated = statementLog.repeated(repeatedStatementThreshold);
+        }
+
+        long elapsed = System.nanoTime() - start;
+        int rows = result == null ? 0 : rowCounter.applyAsInt(result);
+        int entities = Math.max(0, managedEntities(em) - managedBefore);
+
+        Timer.builder("querydsl.query").tag("shape", shape).register(registry).record(Duration.ofNanos(elapsed));
+        DistributionSummary.builder("querydsl.query.rows").tag("shape", shape).register(registry).record(rows);
+        DistributionSummary.builder("querydsl.query.entities").tag("shape", shape).register(registry).record(entities);
+        DistributionSummary.builder("querydsl.query.statements").tag("shape", shape).register(registry).record(statements);
+
+        if (elapsed >= slowQueryThreshold.toNanos()) {
+            log.warn("slow query {}ms rows={} entities={} statements={} : {}",
+                    Duration.ofNanos(elapsed).toMillis(), rows, entities, statements, shape);
+        }
+        reportRepeated(shape, repeated, "querydsl.query.repeated");
+        return result;
+    }
+
+    /**
+     * 여러 쿼리와 그 뒤의 지연 로딩까지 한 작업 단위로 묶어서 측정
+     * ex) metrics.track("member-list", () -> members.stream().map(m -> m.getTeam().getName())...)
+     */
+    public <T> T track(String name, Supplier<T> work) {
+        long start = System.nanoTime();
+
+        T result;
+        int statements;
+        Map<String, Integer> repeated;
+        try (StatementLog statementLog = SqlStatementInspector.open()) {
+            result = work.get();
+            statements = statementLog.getTotal();
+            repeated = statementLog.repeated(repeatedStatementThreshold);
+        }
+
+        long elapsed = System.nanoTime() - start;
+        Timer.builder("querydsl.unit").tag("name", name).register(registry).record(Duration.ofNanos(elapsed));
+        DistributionSummary.builder("querydsl.unit.statements").tag("name", name).register(registry).record(statements);
+
+        if (elapsed >= slowQueryThreshold.toNanos()) {
+            log.warn("slow unit of work {}ms statements={} : {}", Duration.ofNanos(elapsed).toMillis(), statements, name);
+        }
+        reportRepeated(name, repeated, "querydsl.unit.repeated");
+        return result;
+    }
+
+    private void reportRepeated(String name, Map<String, Integer> repeated, String counterName) {
+        if (repeated.isEmpty()) {
+            return;
+        }
+        Counter.builder(counterName).tag("name", name).register(registry).increment(repeated.size());
+        repeated.forEach((sql, count) ->
+                log.warn("possible N+1 in {} : statement executed {} times : {}", name, count, sql));
+    }
+
+    // 트랜잭션 밖에서는 공유 EntityManager 가 호출마다 새 세션을 쓰므로 0 으로 집계됨
+    private static int managedEntities(EntityManager em) {
+        try {
+            return em.unwrap(Session.class).getStatistics().getEntityCount();
+        } catch (RuntimeException e) {
+            return 0;
+        }
+    }
+}
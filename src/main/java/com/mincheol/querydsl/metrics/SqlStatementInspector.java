@@ -0,0 +1,34 @@
+package com.mincheol.querydsl.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Hibernate 가 JDBC 로 보내는 모든 SQL 을 현재 스레드에서 열려 있는 StatementLog 에 기록
+ * (hibernate.session_factory.statement_inspector 로 등록, Hibernate 가 직접 생성하므로 상태는 static)
+ *
+ * 지연 로딩, batch fetch 처럼 QueryDSL 쿼리 밖에서 나가는 SQL 도 같은 스레드면 잡힘.
+ */
+public class SqlStatementInspector implements StatementInspector {
+
+    private static final ThreadLocal<Deque<StatementLog>> ACTIVE = ThreadLocal.withInitial(ArrayDeque::new);
+
+    @Override
+    public String inspect(String sql) {
+        for (StatementLog log : ACTIVE.get()) {
+            log.add(sql);
+        }
+        return sql;
+    }
+
+    /**
+     * 기록 시작. 반드시 close() 로 닫아야 함. 중첩해서 열면 바깥 로그에도 같이 기록됨
+     */
+    public static StatementLog open() {
+        StatementLog log = new StatementLog(ACTIVE.get());
+        ACTIVE.get().push(log);
+        return log;
+    }
+}
@@ -0,0 +1,54 @@
+package com.mincheol.querydsl.metrics;
+
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 한 구간(쿼리 한 번, 또는 작업 단위) 동안 실행된 SQL 기록
+ */
+public class StatementLog implements AutoCloseable {
+
+    private final Deque<StatementLog> owner;
+    private final Map<String, Integer> counts = new LinkedHashMap<>();
+    private int total;
+
+    StatementLog(Deque<StatementLog> owner) {
+        this.owner = owner;
+    }
+
+    void add(String sql) {
+        total++;
+        counts.merge(sql, 1, Integer::sum);
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * 실행된 SQL (중복 제외, 실행 순서)
+     */
+    public Set<String> getStatements() {
+        return counts.keySet();
+    }
+
+    /**
+     * threshold 번 이상 반복된 같은 SQL (N+1 의심)
+     */
+    public Map<String, Integer> repeated(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        counts.forEach((sql, count) -> {
+            if (count >= threshold) {
+                repeated.put(sql, count);
+            }
+        });
+        return repeated;
+    }
+
+    @Override
+    public void close() {
+        owner.remove(this);
+    }
+}
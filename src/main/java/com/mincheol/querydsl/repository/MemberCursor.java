@@ -0,0 +1,58 @@
+package com.mincheol.querydsl.repository;
+
+import com.mincheol.querydsl.entity.Member;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 회원 키셋 페이징용 커서 (username, id)
+ * 클라이언트에는 Base64 문자열로만 노출해서 내부 정렬키를 감춤
+ */
+@Getter
+public class MemberCursor {
+
+    private static final char NULL_USERNAME = '0';
+    private static final char HAS_USERNAME = '1';
+
+    private final String username;  // null 이면 nulls last 구간
+    private final Long id;
+
+    public MemberCursor(String username, Long id) {
+        if (id == null) {
+            throw new IllegalArgumentException("cursor id must not be null");
+        }
+        this.username = username;
+        this.id = id;
+    }
+
+    public static MemberCursor of(Member member) {
+        return new MemberCursor(member.getUsername(), member.getId());
+    }
+
+    // 포맷 : {id}:{0|1}{username}
+    public String encode() {
+        String raw = id + ":" + (username == null ? String.valueOf(NULL_USERNAME) : HAS_USERNAME + username);
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static MemberCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(':');
+            Long id = Long.valueOf(raw.substring(0, sep));
+            char flag = raw.charAt(sep + 1);
+            if (flag == NULL_USERNAME) {
+                return new MemberCursor(null, id);
+            }
+            if (flag == HAS_USERNAME) {
+                return new MemberCursor(raw.substring(sep + 2), id);
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("invalid cursor: " + cursor, e);
+        }
+        throw new IllegalArgumentException("invalid cursor: " + cursor);
+    }
+}
@@ -0,0 +1,94 @@
+package com.mincheol.querydsl.repository;
+
+import com.mincheol.querydsl.support.Buckets;
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.StringExpression;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.mincheol.querydsl.entity.QMember.member;
+import static com.mincheol.querydsl.entity.QTeam.team;
+
+/**
+ * 회원 나이 구간별 인원 수 (히스토그램)
+ * 회원을 전부 가져와서 자바에서 세지 않고, CASE + GROUP BY + COUNT 한 번으로 구간 수 만큼의 row 만 받음
+ *
+ * select case when age between 0 and 20 then '0~20' ... else '기타' end, count(*)
+ * from member group by case when ... end
+ *
+ * 결과 Map 은 Buckets 에 정의한 구간 순서이고, 회원이 없는 구간은 0
+ */
+@Repository
+public class MemberHistogramRepository {
+
+    private final JPAQueryFactory queryFactory;
+
+    public MemberHistogramRepository(EntityManager em) {
+        this.queryFactory = new JPAQueryFactory(em);
+    }
+
+    /**
+     * @param condition 회원 조건 (null 가능)
+     */
+    public Map<String, Long> ageHistogram(Buckets<Integer> buckets, Predicate condition) {
+        StringExpression label = buckets.label();
+        List<Tuple> rows = queryFactory
+                .select(label, member.count())
+                .from(member)
+                .where(where(buckets, condition))
+                .groupBy(label)
+                .fetch();
+
+        Map<String, Long> histogram = emptyHistogram(buckets);
+        for (Tuple row : rows) {
+            histogram.put(row.get(label), row.get(member.count()));
+        }
+        return histogram;
+    }
+
+    /**
+     * 팀 이름별 히스토그램 (팀 이름 순). 팀이 없는 회원은 포함하지 않음
+     */
+    public Map<String, Map<String, Long>> ageHistogramByTeam(Buckets<Integer> buckets, Predicate condition) {
+        StringExpression label = buckets.label();
+        List<Tuple> rows = queryFactory
+                .select(team.name, label, member.count())
+                .from(member)
+                .join(member.team, team)
+                .where(where(buckets, condition))
+                .groupBy(team.name, label)
+                .orderBy(team.name.asc())
+                .fetch();
+
+        Map<String, Map<String, Long>> crossTab = new LinkedHashMap<>();
+        for (Tuple row : rows) {
+            crossTab.computeIfAbsent(row.get(team.name), name -> emptyHistogram(buckets))
+                    .put(row.get(label), row.get(member.count()));
+        }
+        return crossTab;
+    }
+
+    // otherwise 가 없으면 어느 구간에도 안 들어가는 회원은 DB 에서 거름
+    private static Predicate where(Buckets<Integer> buckets, Predicate condition) {
+        BooleanBuilder where = new BooleanBuilder(condition);
+        if (!buckets.hasOtherwise()) {
+            where.and(buckets.inAnyRange());
+        }
+        return where;
+    }
+
+    private static Map<String, Long> emptyHistogram(Buckets<Integer> buckets) {
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        for (String label : buckets.labels()) {
+            histogram.put(label, 0L);
+        }
+        return histogram;
+    }
+}
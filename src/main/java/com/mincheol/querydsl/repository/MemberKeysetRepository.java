@@ -0,0 +1,67 @@
+package com.mincheol.querydsl.repository;
+
+import com.mincheol.querydsl.dto.KeysetPage;
+import com.mincheol.querydsl.entity.Member;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static com.mincheol.querydsl.entity.QMember.member;
+
+/**
+ * offset/limit 대신 마지막으로 본 (username, id) 다음부터 읽는 키셋 페이징
+ * offset 은 건너뛸 row 를 전부 읽고 버리기 때문에 뒤 페이지로 갈수록 느려지지만,
+ * 키셋은 인덱스(username, member_id)에서 바로 시작 위치를 찾기 때문에 몇 번째 페이지든 비용이 같음.
+ *
+ * 정렬 : username desc nulls last, id desc (paging1 과 같은 username desc 에 id 로 유일성 보장)
+ */
+@Repository
+public class MemberKeysetRepository {
+
+    private final JPAQueryFactory queryFactory;
+
+    public MemberKeysetRepository(EntityManager em) {
+        this.queryFactory = new JPAQueryFactory(em);
+    }
+
+    /**
+     * @param cursor 이전 페이지의 nextCursor, 첫 페이지는 null
+     */
+    public KeysetPage<Member> findPage(String cursor, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be positive: " + size);
+        }
+
+        List<Member> content = queryFactory
+                .selectFrom(member)
+                .where(after(cursor == null ? null : MemberCursor.decode(cursor)))
+                .orderBy(member.username.desc().nullsLast(), member.id.desc())
+                .limit(size + 1)    // 한 건 더 읽어서 다음 페이지 존재 여부 확인 (count 쿼리 없음)
+                .fetch();
+
+        if (content.size() <= size) {
+            return new KeysetPage<>(content, null);
+        }
+
+        content = content.subList(0, size);
+        String nextCursor = MemberCursor.of(content.get(size - 1)).encode();
+        return new KeysetPage<>(content, nextCursor);
+    }
+
+    // 정렬 순서상 커서 "뒤"에 오는 row 조건. 커서가 없으면 null 을 반환해서 where 에서 무시됨
+    private BooleanExpression after(MemberCursor cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        if (cursor.getUsername() == null) {
+            // nulls last 구간 안에서는 id 로만 이어감
+            return member.username.isNull().and(member.id.lt(cursor.getId()));
+        }
+        return member.username.lt(cursor.getUsername())
+                .or(member.username.eq(cursor.getUsername()).and(member.id.lt(cursor.getId())))
+                .or(member.username.isNull());
+    }
+}
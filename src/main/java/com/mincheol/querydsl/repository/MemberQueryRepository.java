@@ -0,0 +1,222 @@
+package com.mincheol.querydsl.repository;
+
+import com.mincheol.querydsl.dto.MemberDto;
+import com.mincheol.querydsl.dto.MemberSearchCondition;
+import com.mincheol.querydsl.dto.MemberTeamDto;
+import com.mincheol.querydsl.dto.QMemberDto;
+import com.mincheol.querydsl.dto.QMemberTeamDto;
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.mincheol.querydsl.entity.QMember.member;
+import static com.mincheol.querydsl.entity.QTeam.team;
+
+/**
+ * 회원/팀 검색 페이징
+ * fetchResults() 는 content 쿼리의 join, order by 를 그대로 count 쿼리에 붙이기 때문에
+ * content 쿼리와 count 쿼리를 따로 만들어서 count 쿼리를 가볍게 함.
+ */
+@Repository
+public class MemberQueryRepository {
+
+    private final JPAQueryFactory queryFactory;
+    private final EntityManagerFactory emf;
+    private final ExecutorService countExecutor;
+
+    public MemberQueryRepository(EntityManager em,
+                                 EntityManagerFactory emf,
+                                 @Value("${querydsl.count.pool-size:4}") int countPoolSize) {
+        this.queryFactory = new JPAQueryFactory(em);
+        this.emf = emf;
+        this.countExecutor = Executors.newFixedThreadPool(countPoolSize, new CountThreadFactory());
+    }
+
+    /**
+     * content 조회 후 필요할 때만 count 쿼리 실행
+     * - 첫 페이지인데 content 가 page size 보다 작을 때
+     * - 마지막 페이지일 때 (offset + content size 가 곧 total)
+     * 에는 count 쿼리를 생략함
+     */
+    public Page<MemberTeamDto> searchPage(MemberSearchCondition condition, Pageable pageable) {
+        List<MemberTeamDto> content = contentQuery(condition, pageable).fetch();
+
+        JPAQuery<Long> countQuery = countQuery(queryFactory, condition);
+        return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchOne);
+    }
+
+    /**
+     * count 쿼리를 별도 executor 에서 content 쿼리와 동시에 실행
+     * count 는 별도의 EntityManager(커넥션)에서 돌기 때문에 현재 트랜잭션에서 flush 안 된 변경은 보이지 않음.
+     * count 가 필요 없다고 판단되면 아직 시작 전인 count 작업은 취소됨.
+     */
+    public Page<MemberTeamDto> searchPageWithAsyncCount(MemberSearchCondition condition, Pageable pageable) {
+        CompletableFuture<Long> total = CompletableFuture.supplyAsync(() -> count(condition), countExecutor);
+
+        List<MemberTeamDto> content;
+        try {
+            content = contentQuery(condition, pageable).fetch();
+        } catch (RuntimeException e) {
+            total.cancel(false);
+            throw e;
+        }
+
+        Page<MemberTeamDto> page = PageableExecutionUtils.getPage(content, pageable, () -> awaitCount(total));
+        total.cancel(false);    // 이미 완료됐거나 사용한 경우에는 아무 영향 없음
+        return page;
+    }
+
+    private JPAQuery<MemberTeamDto> contentQuery(MemberSearchCondition condition, Pageable pageable) {
+        return queryFactory
+                .select(new QMemberTeamDto(
+                        member.id,
+                        member.username,
+                        member.age,
+                        team.id,
+                        team.name))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(searchCondition(condition))
+                .orderBy(member.id.asc())
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize());
+    }
+
+    // count 쿼리에는 fetch join, order by 를 붙이지 않고,
+    // member -> team 은 다대일이라 row 수를 바꾸지 않으니 팀 조건이 있을 때만 join 함
+    private JPAQuery<Long> countQuery(JPAQueryFactory queryFactory, MemberSearchCondition condition) {
+        JPAQuery<Long> query = queryFactory
+                .select(member.count())
+                .from(member);
+
+        if (StringUtils.hasText(condition.getTeamName())) {
+            query.join(member.team, team);
+        }
+
+        return query.where(searchCondition(condition));
+    }
+
+    private long count(MemberSearchCondition condition) {
+        EntityManager countEm = emf.createEntityManager();
+        try {
+            Long total = countQuery(new JPAQueryFactory(countEm), condition).fetchOne();
+            return total == null ? 0 : total;
+        } finally {
+            countEm.close();
+        }
+    }
+
+    private long awaitCount(CompletableFuture<Long> total) {
+        try {
+            return total.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("count query interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("count query failed", e.getCause());
+        }
+    }
+
+    /**
+     * 조건 조합 검색 (회원 이름/나이만 조회)
+     * - 팀 이름 조건이 있을 때만 team 을 join 함
+     * - 정렬은 조건에 쓰인 인덱스 순서를 그대로 따라서, DB 가 인덱스를 읽는 순서대로 limit 건만 읽고 멈출 수 있게 함
+     *   이름 접두사 -> idx_member_username_id (username desc, member_id desc)
+     *   나이 범위   -> idx_member_age_id (age, member_id)
+     *   그 외       -> PK
+     */
+    public List<MemberDto> search(MemberSearchCondition condition, int limit) {
+        JPAQuery<MemberDto> query = queryFactory
+                .select(new QMemberDto(member.username, member.age))
+                .from(member);
+
+        if (StringUtils.hasText(condition.getTeamName())) {
+            query.join(member.team, team);
+        }
+
+        return query
+                .where(searchCondition(condition))
+                .orderBy(indexOrder(condition))
+                .limit(limit)
+                .fetch();
+    }
+
+    private BooleanBuilder searchCondition(MemberSearchCondition condition) {
+        return new BooleanBuilder()
+                .and(usernameEq(condition.getUsername()))
+                .and(usernameStartsWith(condition.getUsernamePrefix()))
+                .and(teamNameEq(condition.getTeamName()))
+                .and(ageGoe(condition.getAgeGoe()))
+                .and(ageLoe(condition.getAgeLoe()));
+    }
+
+    private OrderSpecifier<?>[] indexOrder(MemberSearchCondition condition) {
+        if (StringUtils.hasText(condition.getUsernamePrefix())) {
+            return new OrderSpecifier<?>[]{member.username.desc(), member.id.desc()};
+        }
+        if (condition.getAgeGoe() != null || condition.getAgeLoe() != null) {
+            return new OrderSpecifier<?>[]{member.age.asc(), member.id.asc()};
+        }
+        return new OrderSpecifier<?>[]{member.id.asc()};
+    }
+
+    private BooleanExpression usernameEq(String username) {
+        return StringUtils.hasText(username) ? member.username.eq(username) : null;
+    }
+
+    // like 'prefix%' 라서 username 인덱스 범위 검색이 됨 (%, _ 는 이스케이프됨)
+    private BooleanExpression usernameStartsWith(String prefix) {
+        return StringUtils.hasText(prefix) ? member.username.startsWith(prefix) : null;
+    }
+
+    private BooleanExpression teamNameEq(String teamName) {
+        return StringUtils.hasText(teamName) ? team.name.eq(teamName) : null;
+    }
+
+    private BooleanExpression ageGoe(Integer ageGoe) {
+        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    }
+
+    private BooleanExpression ageLoe(Integer ageLoe) {
+        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        countExecutor.shutdown();
+    }
+
+    private static class CountThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "count-query-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.mincheol.querydsl.repository;
+
+import com.mincheol.querydsl.dto.MemberDto;
+import com.mincheol.querydsl.dto.QMemberDto;
+import com.mincheol.querydsl.search.UsernameIndex;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.EntityManager;
+import java.util.Collections;
+import java.util.List;
+
+import static com.mincheol.querydsl.entity.QMember.member;
+
+/**
+ * username 자동완성(typeahead) 검색
+ * - 접두어 : username 인덱스 순서(username desc, id desc)로 읽다가 limit 에서 멈춤
+ * - 포함 : UsernameIndex 의 n-gram 색인으로 후보를 찾은 뒤 그 회원만 확인, id 순
+ */
+@Repository
+@ConditionalOnProperty(prefix = "querydsl.username-index", name = "enabled", havingValue = "true")
+public class MemberUsernameSearchRepository {
+
+    private final JPAQueryFactory queryFactory;
+    private final UsernameIndex usernameIndex;
+
+    public MemberUsernameSearchRepository(EntityManager em, UsernameIndex usernameIndex) {
+        this.queryFactory = new JPAQueryFactory(em);
+        this.usernameIndex = usernameIndex;
+    }
+
+    public List<MemberDto> findByUsernamePrefix(String prefix, int limit) {
+        if (!StringUtils.hasLength(prefix)) {
+            return Collections.emptyList();
+        }
+        return queryFactory
+                .select(new QMemberDto(member.username, member.age))
+                .from(member)
+                .where(member.username.startsWith(prefix))
+                .orderBy(member.username.desc(), member.id.desc())
+                .limit(limit)
+                .fetch();
+    }
+
+    public List<MemberDto> findByUsernameContaining(String term, int limit) {
+        if (!StringUtils.hasLength(term)) {
+            return Collections.emptyList();
+        }
+        return queryFactory
+                .select(new QMemberDto(member.username, member.age))
+                .from(member)
+                .where(usernameIndex.contains(term))
+                .orderBy(member.id.asc())
+                .limit(limit)
+                .fetch();
+    }
+}
@@ -0,0 +1,107 @@
+package com.mincheol.querydsl.repository;
+
+import com.mincheol.querydsl.dto.QTeamAverageAgeDto;
+import com.mincheol.querydsl.dto.TeamAverageAgeDto;
+import com.mincheol.querydsl.entity.Team;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.mincheol.querydsl.entity.QMember.member;
+import static com.mincheol.querydsl.entity.QTeam.team;
+
+/**
+ * 팀 + 회원 컬렉션 페이징 조회
+ * 컬렉션을 fetch join 하고 offset/limit 을 걸면 Hibernate 는 전체를 읽어서 메모리에서 페이징함.
+ * (fail_on_pagination_over_collection_fetch=true 라서 이 프로젝트에서는 예외)
+ * 그래서 두 번에 나눠서 조회함
+ * 1. 팀 id 만 DB 에서 페이징
+ * 2. 해당 id 의 팀을 회원과 fetch join 으로 한 번에 조회 후, 1번의 순서대로 정렬
+ */
+@Repository
+public class TeamQueryRepository {
+
+    static final String AVERAGE_AGE_CACHE_REGION = "team-average-age";
+
+    private final JPAQueryFactory queryFactory;
+
+    public TeamQueryRepository(EntityManager em) {
+        this.queryFactory = new JPAQueryFactory(em);
+    }
+
+    /**
+     * @param condition 팀 조건 (null 가능)
+     * @param orders    정렬 조건. 마지막에 team.id 를 붙여서 페이지 경계가 흔들리지 않게 함
+     */
+    public Page<Team> findPageWithMembers(Predicate condition, Pageable pageable, OrderSpecifier<?>... orders) {
+        List<OrderSpecifier<?>> orderBy = new ArrayList<>(Arrays.asList(orders));
+        orderBy.add(team.id.asc());
+
+        List<Long> ids = queryFactory
+                .select(team.id)
+                .from(team)
+                .where(condition)
+                .orderBy(orderBy.toArray(new OrderSpecifier<?>[0]))
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+
+        List<Team> content = findWithMembers(ids);
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> queryFactory
+                .select(team.count())
+                .from(team)
+                .where(condition)
+                .fetchOne());
+    }
+
+    /**
+     * 팀별 회원 평균 나이. 자주 읽고 거의 안 바뀌는 집계라 쿼리 캐시에 둠
+     * member/team 테이블에 쓰기가 커밋되면 Hibernate 가 결과를 무효화함 (벌크 update/delete, 네이티브 쿼리 포함)
+     */
+    public List<TeamAverageAgeDto> findAverageAgeByTeam() {
+        return queryFactory
+                .select(new QTeamAverageAgeDto(team.name, member.age.avg()))
+                .from(member)
+                .join(member.team, team)
+                .groupBy(team.name)
+                .orderBy(team.name.asc())
+                .setHint(QueryHints.CACHEABLE, true)
+                .setHint(QueryHints.CACHE_REGION, AVERAGE_AGE_CACHE_REGION)
+                .fetch();
+    }
+
+    private List<Team> findWithMembers(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Team> teams = queryFactory
+                .selectFrom(team).distinct()
+                .leftJoin(team.members, member).fetchJoin()
+                .where(team.id.in(ids))
+                .setHint(QueryHints.PASS_DISTINCT_THROUGH, false)   // distinct 는 엔티티 중복 제거에만 사용, SQL 에는 안 붙임
+                .fetch();
+
+        Map<Long, Integer> position = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            position.put(ids.get(i), i);
+        }
+        teams.sort(Comparator.comparing(t -> position.get(t.getId())));
+        return teams;
+    }
+}
@@ -0,0 +1,125 @@
+package com.mincheol.querydsl.search;
+
+import com.mincheol.querydsl.entity.Member;
+import org.hibernate.BaseSessionEventListener;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Member 저장/수정/삭제를 member_username_gram 에 반영하는 Hibernate 이벤트 리스너
+ * TeamStatsListener 와 같은 방식 : 이벤트마다 바뀐 회원만 모아두고 flush 가 끝날 때 같은 커넥션으로 한 번에 씀
+ * username 이 안 바뀐 update 는 무시함
+ *
+ * 벌크 update/delete, 네이티브 쿼리는 이벤트가 없으므로 반영되지 않음 -> UsernameIndex.rebuild()
+ */
+public class UsernameGramListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final Map<SessionImplementor, PendingGrams> pending = new ConcurrentHashMap<>();
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member) {
+            pending(event.getSession()).insert((Long) event.getId(), username(event.getPersister(), event.getState()));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Member)) {
+            return;
+        }
+        EntityPersister persister = event.getPersister();
+        String username = username(persister, event.getState());
+        // 이전 값을 모르면(준영속 엔티티 session.update()) 바뀐 것으로 봄
+        if (event.getOldState() == null || !Objects.equals(username(persister, event.getOldState()), username)) {
+            pending(event.getSession()).replace((Long) event.getId(), username);
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member) {
+            pending(event.getSession()).replace((Long) event.getId(), null);
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    private PendingGrams pending(SessionImplementor session) {
+        return pending.computeIfAbsent(session, key -> {
+            PendingGrams grams = new PendingGrams(key);
+            key.getEventListenerManager().addListener(grams);
+            return grams;
+        });
+    }
+
+    private static String username(EntityPersister persister, Object[] state) {
+        return (String) state[persister.getEntityMetamodel().getPropertyIndex("username")];
+    }
+
+    /**
+     * 세션 하나에 쌓인 변경. flush 가 끝날 때마다 반영하고 비움
+     */
+    private class PendingGrams extends BaseSessionEventListener {
+
+        private final SessionImplementor session;
+        private final Map<Long, String> usernames = new LinkedHashMap<>();
+        private final Map<Long, Boolean> replaced = new HashMap<>();    // true = 기존 조각을 지워야 함
+
+        PendingGrams(SessionImplementor session) {
+            this.session = session;
+        }
+
+        void insert(Long memberId, String username) {
+            usernames.put(memberId, username);
+            replaced.putIfAbsent(memberId, false);
+        }
+
+        void replace(Long memberId, String username) {
+            usernames.put(memberId, username);
+            replaced.put(memberId, true);
+        }
+
+        @Override
+        public void flushEnd(int numberOfEntities, int numberOfCollections) {
+            write();
+        }
+
+        @Override
+        public void partialFlushEnd(int numberOfEntities, int numberOfCollections) {
+            write();    // 쿼리 실행 전 자동 flush
+        }
+
+        @Override
+        public void end() {
+            pending.remove(session);
+        }
+
+        private void write() {
+            if (usernames.isEmpty()) {
+                return;
+            }
+            Map<Long, String> appliedUsernames = new LinkedHashMap<>(usernames);
+            Map<Long, Boolean> appliedReplaced = new HashMap<>(replaced);
+            usernames.clear();
+            replaced.clear();
+
+            session.doWork(connection -> UsernameGramWriter.apply(connection, appliedUsernames, appliedReplaced));
+        }
+    }
+}
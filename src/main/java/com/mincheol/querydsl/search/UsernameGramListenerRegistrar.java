@@ -0,0 +1,36 @@
+package com.mincheol.querydsl.search;
+
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * UsernameGramListener 를 SessionFactory 에 등록
+ * 회원 쓰기마다 username 길이만큼 조각을 더 쓰므로 querydsl.username-index.enabled=true 일 때만
+ */
+@Component
+@ConditionalOnProperty(prefix = "querydsl.username-index", name = "enabled", havingValue = "true")
+public class UsernameGramListenerRegistrar {
+
+    private final EntityManagerFactory emf;
+
+    public UsernameGramListenerRegistrar(EntityManagerFactory emf) {
+        this.emf = emf;
+    }
+
+    @PostConstruct
+    public void register() {
+        UsernameGramListener listener = new UsernameGramListener();
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, listener);
+        registry.appendListeners(EventType.POST_UPDATE, listener);
+        registry.appendListeners(EventType.POST_DELETE, listener);
+    }
+}
@@ -0,0 +1,93 @@
+package com.mincheol.querydsl.search;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * member_username_gram 갱신 SQL. Hibernate 를 거치지 않고 현재 트랜잭션의 커넥션으로 바로 실행함
+ * 회원 수천 명이 한 번에 flush 돼도 delete / insert 를 각각 JDBC batch 하나로 보냄
+ */
+final class UsernameGramWriter {
+
+    private static final String DELETE = "delete from member_username_gram where member_id = ?";
+    private static final String DELETE_RANGE = "delete from member_username_gram where member_id between ? and ?";
+    private static final String INSERT = "insert into member_username_gram (gram, member_id) values (?, ?)";
+    private static final String SELECT_RANGE = "select member_id, username from member where member_id between ? and ?";
+
+    private static final int BATCH_SIZE = 1000;
+
+    private UsernameGramWriter() {
+    }
+
+    /**
+     * @param usernames 회원 id -> 새 username (null 이면 조각만 지움)
+     * @param replaced  기존 조각을 먼저 지워야 하는지 (새로 저장된 회원이면 지울 게 없음)
+     */
+    static void apply(Connection connection, Map<Long, String> usernames, Map<Long, Boolean> replaced) throws SQLException {
+        try (PreparedStatement delete = connection.prepareStatement(DELETE)) {
+            int batched = 0;
+            for (Map.Entry<Long, Boolean> entry : replaced.entrySet()) {
+                if (entry.getValue()) {
+                    delete.setLong(1, entry.getKey());
+                    delete.addBatch();
+                    batched++;
+                }
+            }
+            if (batched > 0) {
+                delete.executeBatch();
+            }
+        }
+
+        try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+            int batched = 0;
+            for (Map.Entry<Long, String> entry : usernames.entrySet()) {
+                batched = addGrams(insert, entry.getKey(), entry.getValue(), batched);
+            }
+            insert.executeBatch();
+        }
+    }
+
+    /**
+     * member_id 가 from ~ to 인 회원의 조각을 member 테이블 기준으로 다시 만듦
+     * (벌크 쿼리/네이티브 쿼리/DataSeeder 처럼 리스너를 거치지 않은 변경 반영용)
+     */
+    static long rebuild(Connection connection, long fromId, long toId) throws SQLException {
+        try (PreparedStatement delete = connection.prepareStatement(DELETE_RANGE)) {
+            delete.setLong(1, fromId);
+            delete.setLong(2, toId);
+            delete.executeUpdate();
+        }
+
+        long members = 0;
+        try (PreparedStatement select = connection.prepareStatement(SELECT_RANGE);
+             PreparedStatement insert = connection.prepareStatement(INSERT)) {
+            select.setLong(1, fromId);
+            select.setLong(2, toId);
+            select.setFetchSize(BATCH_SIZE);
+            try (ResultSet rs = select.executeQuery()) {
+                int batched = 0;
+                while (rs.next()) {
+                    batched = addGrams(insert, rs.getLong(1), rs.getString(2), batched);
+                    members++;
+                }
+            }
+            insert.executeBatch();
+        }
+        return members;
+    }
+
+    private static int addGrams(PreparedStatement insert, long memberId, String username, int batched) throws SQLException {
+        for (String gram : UsernameGrams.index(username)) {
+            insert.setString(1, gram);
+            insert.setLong(2, memberId);
+            insert.addBatch();
+            if (++batched % BATCH_SIZE == 0) {
+                insert.executeBatch();
+            }
+        }
+        return batched;
+    }
+}
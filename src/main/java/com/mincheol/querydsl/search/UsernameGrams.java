@@ -0,0 +1,39 @@
+package com.mincheol.querydsl.search;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * username 을 GRAM 글자 n-gram 조각으로 나눔 (char 단위, 겹치게)
+ * 검색어가 GRAM 글자 이상이면 검색어의 모든 조각이 username 의 조각 중에 있음.
+ * 더 짧은 검색어는 조각으로 찾지 않음 (UsernameIndex 참고)
+ */
+final class UsernameGrams {
+
+    static final int GRAM = 3;
+
+    private UsernameGrams() {
+    }
+
+    /**
+     * 색인할 조각. null 이거나 GRAM 글자보다 짧으면 빈 Set
+     */
+    static Set<String> index(String username) {
+        return username == null ? new LinkedHashSet<>() : grams(username);
+    }
+
+    /**
+     * 검색어의 조각. 검색어가 GRAM 글자보다 짧으면 빈 Set
+     */
+    static Set<String> query(String term) {
+        return grams(term);
+    }
+
+    private static Set<String> grams(String value) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+}
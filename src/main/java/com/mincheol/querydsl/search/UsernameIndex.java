@@ -0,0 +1,104 @@
+package com.mincheol.querydsl.search;
+
+import com.mincheol.querydsl.entity.MemberUsernameGram;
+import com.mincheol.querydsl.entity.QMemberUsernameGram;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.JPAExpressions;
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.EntityManager;
+
+import static com.mincheol.querydsl.entity.QMember.member;
+
+/**
+ * member_username_gram 으로 username 검색 조건을 만듦
+ * member.username.contains("12345") 는 앞에 % 가 붙어서 인덱스를 못 타고 매번 member 전체를 읽음.
+ * 대신 검색어 조각을 가진 회원 id 를 색인(PK gram, member_id)에서 찾고, 그 회원만 원래 조건으로 다시 확인함
+ *
+ * queryFactory.selectFrom(member).where(usernameIndex.contains("12345"), member.age.goe(20))
+ *
+ * - 검색어가 3 글자 이상 : 조각마다 색인 건수를 candidate-limit 까지만 세어서 가장 적은 조각 하나로 후보를 찾음
+ *   (흔한 조각은 끝까지 세지 않음. 제한이 너무 작으면 조각들이 모두 제한에 걸려서 가장 드문 조각을 못 고름)
+ * - 검색어가 1~2 글자 : 색인을 쓰지 않고 like '%12%' 그대로 (맞는 회원이 많아서 후보 목록이 스캔보다 비쌈)
+ * 접두어 검색(startsWith)은 username 인덱스(idx_member_username_id) 범위 검색이 되므로 색인이 필요 없음
+ *
+ * querydsl.username-index.enabled=true 일 때만 등록됨 (UsernameGramListenerRegistrar 와 같이)
+ */
+@Component
+@ConditionalOnProperty(prefix = "querydsl.username-index", name = "enabled", havingValue = "true")
+public class UsernameIndex {
+
+    private static final QMemberUsernameGram gram = QMemberUsernameGram.memberUsernameGram;
+    private static final String COUNT_UP_TO_LIMIT =
+            "select count(*) from (select 1 from member_username_gram where gram = :gram limit :limit)";
+
+    private final EntityManager em;
+    private final int candidateLimit;
+
+    public UsernameIndex(EntityManager em,
+                         @Value("${querydsl.username-index.candidate-limit:10000}") int candidateLimit) {
+        this.em = em;
+        this.candidateLimit = candidateLimit;
+    }
+
+    /**
+     * username 에 term 이 들어 있는 회원. term 이 비어 있으면 null (조건 없음)
+     */
+    public BooleanExpression contains(String term) {
+        if (!StringUtils.hasLength(term)) {
+            return null;
+        }
+        if (term.length() < UsernameGrams.GRAM) {
+            return member.username.contains(term);
+        }
+
+        String rarest = null;
+        long rarestCount = Long.MAX_VALUE;
+        for (String candidate : UsernameGrams.query(term)) {
+            long count = countUpToLimit(candidate);
+            if (count == 0) {
+                return member.id.isNull();  // 없는 조각이 있으면 결과 없음 (id 는 null 일 수 없음)
+            }
+            if (count < rarestCount) {
+                rarest = candidate;
+                rarestCount = count;
+            }
+        }
+        return member.id.in(JPAExpressions
+                        .select(gram.memberId)
+                        .from(gram)
+                        .where(gram.gram.eq(rarest)))
+                .and(member.username.contains(term));
+    }
+
+    /**
+     * member_id 가 fromId ~ toId 인 회원의 조각을 다시 만듦
+     * 벌크 쿼리, 네이티브 쿼리, DataSeeder 처럼 리스너를 거치지 않고 username 을 바꾼 뒤 호출
+     *
+     * @return 다시 만든 회원 수
+     */
+    @Transactional
+    public long rebuild(long fromId, long toId) {
+        Session session = em.unwrap(Session.class);
+        session.flush();
+        return session.doReturningWork(connection -> UsernameGramWriter.rebuild(connection, fromId, toId));
+    }
+
+    // 흔한 조각(예: 모든 회원의 "mem")은 candidateLimit 까지만 셈
+    // id 를 가져와서 세면 조각마다 최대 candidateLimit 개를 Hibernate 로 읽게 되므로 DB 에서 셈 (JPQL 은 from 절 서브쿼리가 안 됨)
+    private long countUpToLimit(String candidate) {
+        Number count = (Number) em.createNativeQuery(COUNT_UP_TO_LIMIT)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(MemberUsernameGram.class)
+                .setParameter("gram", candidate)
+                .setParameter("limit", candidateLimit)
+                .getSingleResult();
+        return count.longValue();
+    }
+}
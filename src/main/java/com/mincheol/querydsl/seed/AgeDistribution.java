@@ -0,0 +1,43 @@
+package com.mincheol.querydsl.seed;
+
+import java.util.SplittableRandom;
+
+/**
+ * 시드 데이터의 회원 나이 분포 (0 ~ 99)
+ */
+public enum AgeDistribution {
+
+    /**
+     * i 번째 회원의 나이 = i % 100. 기존 벤치마크 데이터와 같은 모양 (나이별 인원이 정확히 같음)
+     */
+    SEQUENTIAL {
+        @Override
+        int next(SplittableRandom random, long index) {
+            return (int) (index % MAX_AGE);
+        }
+    },
+
+    UNIFORM {
+        @Override
+        int next(SplittableRandom random, long index) {
+            return random.nextInt(MAX_AGE);
+        }
+    },
+
+    /**
+     * 평균 35, 표준편차 12 의 정규분포를 0 ~ 99 로 자름 (20 ~ 50 대에 몰림)
+     */
+    NORMAL {
+        @Override
+        int next(SplittableRandom random, long index) {
+            // Box-Muller. SplittableRandom 에는 nextGaussian 이 없음 (Java 8)
+            double gaussian = Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+            long age = Math.round(35 + 12 * gaussian);
+            return (int) Math.max(0, Math.min(MAX_AGE - 1, age));
+        }
+    };
+
+    static final int MAX_AGE = 100;
+
+    abstract int next(SplittableRandom random, long index);
+}
@@ -0,0 +1,318 @@
+package com.mincheol.querydsl.seed;
+
+import com.mincheol.querydsl.search.UsernameIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SeedSpec 대로 팀/회원을 만들어서 JDBC batch 로 바로 넣음 (엔티티, 영속성 컨텍스트를 거치지 않음)
+ * - 데이터는 고정 seed 의 SplittableRandom 하나로 순서대로 만들기 때문에 같은 SeedSpec 이면 항상 같음
+ * - 회원은 하나씩 만들어서 바로 batch 에 넣으므로 전체를 메모리에 올리지 않음
+ * - 스프링 트랜잭션 안에서 호출하면 그 트랜잭션의 커넥션으로 넣고 커밋하지 않음 (테스트의 @Transactional 롤백에 같이 롤백됨)
+ *   트랜잭션 밖이면 commit-interval 건마다 커밋함 (H2 파일 DB 가 커밋 전까지 계속 커지지 않게)
+ *
+ * id 는 시퀀스 다음 값부터 이어서 쓰고, 끝나면 시퀀스를 마지막 id 뒤로 옮겨서 이후 persist 와 겹치지 않게 함.
+ * 그래서 넣는 동안 같은 테이블에 다른 쓰기가 없어야 함
+ * 리스너를 거치지 않으므로 team_stats 는 회원을 만들면서 팀별로 같이 집계해서 넣고, 2차 캐시/쿼리 캐시는 비움
+ * (넣은 뒤에 member 를 팀별로 다시 읽어 집계하면 10,000,000 명일 때 시드 자체만큼 걸림)
+ * username 색인(UsernameIndex)이 켜져 있으면 넣은 회원의 조각을 commit-interval 명씩 나눠서 만듦
+ *
+ * H2 에서 트랜잭션 밖으로 defer-indexes-from 명 이상 넣을 때는 member 의 보조 인덱스/외래키를 지우고 넣은 뒤 다시 만듦
+ * (row 마다 인덱스 3개에 끼워 넣는 것보다 다 넣고 한 번에 만드는 게 2배 정도 빠름. DDL 이라 트랜잭션 안에서는 안 함)
+ */
+@Slf4j
+@Component
+public class DataSeeder {
+
+    private static final String INSERT_TEAM = "insert into team (team_id, name) values (?, ?)";
+    private static final String INSERT_MEMBER = "insert into member (member_id, username, age, team_id) values (?, ?, ?, ?)";
+    private static final String INSERT_TEAM_STATS =
+            "insert into team_stats (team_id, member_count, age_sum, age_min, age_max) values (?, ?, ?, ?, ?)";
+    private static final String H2 = "H2";
+    private static final String MEMBER_INDEXES = "select distinct index_name, sql from information_schema.indexes"
+            + " where table_schema = schema() and table_name = 'MEMBER' and primary_key = false";
+    private static final String MEMBER_FOREIGN_KEYS = "select constraint_name, sql from information_schema.constraints"
+            + " where table_schema = schema() and table_name = 'MEMBER' and constraint_type = 'REFERENTIAL'";
+
+    // Member, Team 의 @SequenceGenerator allocationSize
+    private static final int ALLOCATION_SIZE = 50;
+
+    private final DataSource dataSource;
+    private final EntityManagerFactory emf;
+    private final ObjectProvider<UsernameIndex> usernameIndex;
+    private final int batchSize;
+    private final int commitInterval;
+    private final long deferIndexesFrom;
+
+    public DataSeeder(DataSource dataSource,
+                      EntityManagerFactory emf,
+                      ObjectProvider<UsernameIndex> usernameIndex,
+                      @Value("${querydsl.seed.batch-size:1000}") int batchSize,
+                      @Value("${querydsl.seed.commit-interval:1000000}") int commitInterval,
+                      @Value("${querydsl.seed.defer-indexes-from:1000000}") long deferIndexesFrom) {
+        if (batchSize < 1 || commitInterval < batchSize) {
+            throw new IllegalArgumentException("batchSize must be positive and not greater than commitInterval");
+        }
+        this.dataSource = dataSource;
+        this.emf = emf;
+        this.usernameIndex = usernameIndex;
+        this.batchSize = batchSize;
+        this.commitInterval = commitInterval;
+        this.deferIndexesFrom = deferIndexesFrom;
+    }
+
+    public SeedResult seed(SeedSpec spec) {
+        if (spec.getTeams() < 1 || spec.getMembers() < 0
+                || spec.getNullUsernameRatio() < 0 || spec.getNullUsernameRatio() > 1 || spec.getTeamSkew() < 0) {
+            throw new IllegalArgumentException("invalid seed spec: " + spec);
+        }
+        long start = System.nanoTime();
+
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        boolean managed = DataSourceUtils.isConnectionTransactional(connection, dataSource);
+        SeedResult result;
+        try {
+            boolean autoCommit = connection.getAutoCommit();
+            if (!managed) {
+                connection.setAutoCommit(false);
+            }
+            try {
+                long firstTeamId = reserve(connection, "team_seq", spec.getTeams());
+                long firstMemberId = reserve(connection, "member_seq", spec.getMembers());
+                insertTeams(connection, spec, firstTeamId);
+                TeamAges teamAges;
+                if (!managed && spec.getMembers() >= deferIndexesFrom
+                        && H2.equals(connection.getMetaData().getDatabaseProductName())) {
+                    teamAges = insertMembersWithoutIndexes(connection, spec, firstTeamId, firstMemberId);
+                } else {
+                    teamAges = insertMembers(connection, spec, firstTeamId, firstMemberId, managed);
+                }
+                insertTeamStats(connection, firstTeamId, teamAges);
+                if (!managed) {
+                    connection.commit();
+                }
+                result = new SeedResult(firstTeamId, firstTeamId + spec.getTeams() - 1,
+                        firstMemberId, firstMemberId + spec.getMembers() - 1, Duration.ofNanos(System.nanoTime() - start));
+            } catch (SQLException | RuntimeException e) {
+                if (!managed) {
+                    connection.rollback();
+                }
+                throw e;
+            } finally {
+                if (!managed) {
+                    connection.setAutoCommit(autoCommit);
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("seeding failed", e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+
+        usernameIndex.ifAvailable(index -> indexUsernames(index, result));
+        emf.getCache().evictAll();
+        emf.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+
+        log.info("seeded {} teams, {} members in {} ms", result.getTeams(), result.getMembers(), result.getElapsed().toMillis());
+        return result;
+    }
+
+    // 트랜잭션 밖이면 rebuild 한 번이 트랜잭션 하나 (H2 파일 DB 가 커밋 전까지 계속 커지지 않게)
+    private void indexUsernames(UsernameIndex index, SeedResult result) {
+        for (long from = result.getFirstMemberId(); from <= result.getLastMemberId(); from += commitInterval) {
+            index.rebuild(from, Math.min(from + commitInterval - 1, result.getLastMemberId()));
+        }
+    }
+
+    private void insertTeams(Connection connection, SeedSpec spec, long firstTeamId) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(INSERT_TEAM)) {
+            for (int t = 0; t < spec.getTeams(); t++) {
+                insert.setLong(1, firstTeamId + t);
+                insert.setString(2, "team" + t);
+                insert.addBatch();
+                if ((t + 1) % batchSize == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+    }
+
+    private TeamAges insertMembers(Connection connection, SeedSpec spec, long firstTeamId, long firstMemberId, boolean managed)
+            throws SQLException {
+        TeamAges teamAges = new TeamAges(spec.getTeams());
+        SplittableRandom random = new SplittableRandom(spec.getSeed());
+        ZipfSampler teamSampler = spec.getTeamSkew() > 0 ? new ZipfSampler(spec.getTeams(), spec.getTeamSkew()) : null;
+        double nullUsernameRatio = spec.getNullUsernameRatio();
+        AgeDistribution ages = spec.getAges();
+
+        try (PreparedStatement insert = connection.prepareStatement(INSERT_MEMBER)) {
+            for (long i = 0; i < spec.getMembers(); i++) {
+                // 뽑는 순서가 바뀌면 같은 seed 라도 데이터가 달라짐 (팀 -> username -> 나이)
+                int team = teamSampler != null ? teamSampler.next(random) : (int) (i % spec.getTeams());
+                boolean nullUsername = nullUsernameRatio > 0 && random.nextDouble() < nullUsernameRatio;
+                int age = ages.next(random, i);
+
+                insert.setLong(1, firstMemberId + i);
+                if (nullUsername) {
+                    insert.setNull(2, Types.VARCHAR);
+                } else {
+                    insert.setString(2, "member" + i);
+                }
+                insert.setInt(3, age);
+                insert.setLong(4, firstTeamId + team);
+                insert.addBatch();
+                teamAges.add(team, age);
+
+                long rows = i + 1;
+                if (rows % batchSize == 0) {
+                    insert.executeBatch();
+                }
+                if (!managed && rows % commitInterval == 0) {
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+        }
+        return teamAges;
+    }
+
+    // 새로 넣은 팀이라 team_stats 행이 없음. 회원이 없는 팀은 TeamStatsWriter 처럼 count 0, sum 0, min/max null
+    private void insertTeamStats(Connection connection, long firstTeamId, TeamAges teamAges) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(INSERT_TEAM_STATS)) {
+            for (int t = 0; t < teamAges.count.length; t++) {
+                insert.setLong(1, firstTeamId + t);
+                insert.setLong(2, teamAges.count[t]);
+                insert.setLong(3, teamAges.sum[t]);
+                if (teamAges.count[t] > 0) {
+                    insert.setInt(4, teamAges.min[t]);
+                    insert.setInt(5, teamAges.max[t]);
+                } else {
+                    insert.setNull(4, Types.INTEGER);
+                    insert.setNull(5, Types.INTEGER);
+                }
+                insert.addBatch();
+                if ((t + 1) % batchSize == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+    }
+
+    /**
+     * member 의 보조 인덱스, 외래키를 지우고 넣은 뒤 H2 가 저장해 둔 DDL 그대로 다시 만듦
+     * 외래키 DDL 은 인덱스 이름을 참조하므로 인덱스를 먼저 만들고, NOCHECK 로 저장돼 있어서 기존 row 를 다시 검사하지 않음
+     * (넣는 팀 id 는 모두 insertTeams 에서 넣은 것). 넣다가 실패해도 인덱스는 다시 만듦
+     */
+    private TeamAges insertMembersWithoutIndexes(Connection connection, SeedSpec spec, long firstTeamId, long firstMemberId)
+            throws SQLException {
+        Map<String, String> indexes = ddl(connection, MEMBER_INDEXES);
+        Map<String, String> foreignKeys = ddl(connection, MEMBER_FOREIGN_KEYS);
+        try (Statement statement = connection.createStatement()) {
+            for (String foreignKey : foreignKeys.keySet()) {
+                statement.execute("alter table member drop constraint " + foreignKey);   // 외래키 인덱스도 같이 지워짐
+            }
+            for (String index : indexes.keySet()) {
+                statement.execute("drop index if exists " + index);
+            }
+            connection.commit();
+            try {
+                TeamAges teamAges = insertMembers(connection, spec, firstTeamId, firstMemberId, false);
+                connection.commit();
+                return teamAges;
+            } finally {
+                long start = System.nanoTime();
+                for (String sql : indexes.values()) {
+                    statement.execute(sql);
+                }
+                for (String sql : foreignKeys.values()) {
+                    statement.execute(sql);
+                }
+                log.info("rebuilt {} member indexes in {} ms", indexes.size() + foreignKeys.size(),
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+        }
+    }
+
+    // 이름 -> DDL (information_schema.indexes 는 인덱스 컬럼마다 한 row 라서 이름으로 합침)
+    private static Map<String, String> ddl(Connection connection, String query) throws SQLException {
+        Map<String, String> ddl = new LinkedHashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(query)) {
+            while (rs.next()) {
+                ddl.put(rs.getString(1), rs.getString(2));
+            }
+        }
+        return ddl;
+    }
+
+    /**
+     * 시퀀스에서 count 개의 연속된 id 를 받아옴
+     * Hibernate pooled optimizer 는 시퀀스 값 v 를 받으면 (v - 49 ~ v) 를 쓰므로,
+     * 지금 받은 값 다음부터 쓰고 시퀀스를 마지막 id + allocationSize 로 옮기면 이후 persist 와 겹치지 않음
+     */
+    private long reserve(Connection connection, String sequence, long count) throws SQLException {
+        Dialect dialect = emf.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        long current;
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(dialect.getSequenceNextValString(sequence))) {
+            rs.next();
+            current = rs.getLong(1);
+        }
+        long first = current + 1;
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("alter sequence " + sequence + " restart with " + (first + count - 1 + ALLOCATION_SIZE));
+        }
+        return first;
+    }
+
+    /**
+     * 팀 번호(0 ~ teams - 1)별 회원 수, 나이 합/최소/최대
+     */
+    private static final class TeamAges {
+
+        final long[] count;
+        final long[] sum;
+        final int[] min;
+        final int[] max;
+
+        TeamAges(int teams) {
+            count = new long[teams];
+            sum = new long[teams];
+            min = new int[teams];
+            max = new int[teams];
+        }
+
+        void add(int team, int age) {
+            if (count[team]++ == 0) {
+                min[team] = age;
+                max[team] = age;
+            } else {
+                min[team] = Math.min(min[team], age);
+                max[team] = Math.max(max[team], age);
+            }
+            sum[team] += age;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.mincheol.querydsl.seed;
+
+import com.mincheol.querydsl.QuerydslApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * 웹 서버 없이 애플리케이션 컨텍스트만 띄워서 시드 데이터를 넣고 종료
+ *
+ * java -cp build/libs/querydsl-0.0.1-SNAPSHOT.jar -Dloader.main=com.mincheol.querydsl.seed.SeedCommand \
+ *     org.springframework.boot.loader.PropertiesLauncher \
+ *     --spring.datasource.url=jdbc:h2:file:/tmp/querydsl --spring.jpa.hibernate.ddl-auto=create \
+ *     --querydsl.seed.teams=1000 --querydsl.seed.members=10000000 --querydsl.seed.team-skew=1.0 \
+ *     --querydsl.seed.null-username-ratio=0.01 --querydsl.seed.ages=normal
+ */
+public class SeedCommand {
+
+    public static void main(String[] args) {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(QuerydslApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args)) {
+            SeedSpec spec = Binder.get(context.getEnvironment())
+                    .bind("querydsl.seed", SeedSpec.class)
+                    .orElseGet(SeedSpec::new);
+            SeedResult result = context.getBean(DataSeeder.class).seed(spec);
+            System.out.println(spec + " -> " + result);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.mincheol.querydsl.seed;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.time.Duration;
+
+/**
+ * DataSeeder 가 넣은 데이터의 id 범위 (양 끝 포함)
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class SeedResult {
+
+    private final long firstTeamId;
+    private final long lastTeamId;
+    private final long firstMemberId;
+    private final long lastMemberId;
+    private final Duration elapsed;
+
+    public long getTeams() {
+        return lastTeamId - firstTeamId + 1;
+    }
+
+    public long getMembers() {
+        return lastMemberId - firstMemberId + 1;
+    }
+}
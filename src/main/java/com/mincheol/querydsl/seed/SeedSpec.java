@@ -0,0 +1,25 @@
+package com.mincheol.querydsl.seed;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+/**
+ * DataSeeder 가 만들 데이터. 같은 값이면 항상 같은 데이터가 만들어짐 (id 는 시퀀스 위치에 따라 다름)
+ * - 팀 i : name "team{i}"
+ * - 회원 i : username "member{i}" (nullUsernameRatio 확률로 null), age 는 ages 분포
+ * - 팀 배정 : teamSkew 가 0 이면 i % teams 로 고르게, 0 보다 크면 지수가 teamSkew 인 Zipf 분포 (team0 이 가장 큼)
+ *
+ * CLI 에서는 querydsl.seed.* 로 받음 (SeedCommand)
+ * new SeedSpec().setTeams(1000).setMembers(10_000_000).setTeamSkew(1.0)
+ */
+@Data
+@Accessors(chain = true)
+public class SeedSpec {
+
+    private long seed = 42;
+    private int teams = 100;
+    private long members = 100_000;
+    private double teamSkew = 0;
+    private double nullUsernameRatio = 0;
+    private AgeDistribution ages = AgeDistribution.SEQUENTIAL;
+}
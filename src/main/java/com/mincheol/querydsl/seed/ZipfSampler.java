@@ -0,0 +1,35 @@
+package com.mincheol.querydsl.seed;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * 0 ~ n-1 을 Zipf 분포로 뽑음. k 번째(0 부터)가 뽑힐 확률은 1 / (k + 1)^exponent 에 비례
+ * exponent 1 이면 0 번 팀이 1 번 팀의 2 배, 9 번 팀의 10 배 크기
+ * 누적 확률을 미리 계산해두고 이진 탐색 (뽑을 때마다 O(log n), 할당 없음)
+ */
+final class ZipfSampler {
+
+    private final double[] cumulative;
+
+    ZipfSampler(int n, double exponent) {
+        if (n < 1 || exponent <= 0) {
+            throw new IllegalArgumentException("n and exponent must be positive");
+        }
+        cumulative = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1 / Math.pow(k + 1, exponent);
+            cumulative[k] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cumulative[k] /= sum;
+        }
+    }
+
+    int next(SplittableRandom random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        int k = index >= 0 ? index : -index - 1;
+        return Math.min(k, cumulative.length - 1);     // 반올림 오차로 마지막 누적값이 1 보다 조금 작을 수 있음
+    }
+}
@@ -0,0 +1,76 @@
+package com.mincheol.querydsl.service;
+
+import com.mincheol.querydsl.entity.Member;
+import com.mincheol.querydsl.entity.Team;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+
+/**
+ * Team, Member 대량 저장
+ * - id 는 시퀀스 pooled optimizer(allocationSize 50)로 받아서 persist 마다 시퀀스를 조회하지 않음
+ * - hibernate.jdbc.batch_size, order_inserts 로 insert 를 테이블별로 모아서 JDBC batch 로 보냄
+ * - chunkSize 건마다 flush/clear 해서 영속성 컨텍스트가 계속 커지지 않게 함
+ */
+@Service
+public class BulkInsertService {
+
+    private final EntityManager em;
+    private final int chunkSize;
+
+    public BulkInsertService(EntityManager em, @Value("${querydsl.bulk.chunk-size:1000}") int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+        this.em = em;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * 팀과 팀에 속한 회원(team.getMembers())을 함께 저장
+     * Iterable 로 받기 때문에 전체 데이터를 메모리에 올리지 않고 넘겨도 됨
+     *
+     * @return 저장한 row 수 (팀 + 회원)
+     */
+    @Transactional
+    public long insertTeams(Iterable<Team> teams) {
+        long rows = 0;
+        for (Team team : teams) {
+            em.persist(team);
+            rows = flushIfChunkFull(rows + 1);
+
+            for (Member member : team.getMembers()) {
+                em.persist(member);
+                rows = flushIfChunkFull(rows + 1);
+            }
+        }
+        em.flush();
+        em.clear();
+        return rows;
+    }
+
+    /**
+     * 회원만 저장. 회원의 팀은 이미 저장된 팀이어야 함
+     */
+    @Transactional
+    public long insertMembers(Iterable<Member> members) {
+        long rows = 0;
+        for (Member member : members) {
+            em.persist(member);
+            rows = flushIfChunkFull(rows + 1);
+        }
+        em.flush();
+        em.clear();
+        return rows;
+    }
+
+    private long flushIfChunkFull(long rows) {
+        if (rows % chunkSize == 0) {
+            em.flush();
+            em.clear();
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,214 @@
+package com.mincheol.querydsl.service;
+
+import com.mincheol.querydsl.entity.Member;
+import com.mincheol.querydsl.entity.Team;
+import com.mincheol.querydsl.stats.TeamStatsRepository;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import org.hibernate.Hibernate;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.Status;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+import static com.mincheol.querydsl.entity.QMember.member;
+import static com.mincheol.querydsl.entity.QTeam.team;
+
+/**
+ * Member 벌크 수정/삭제
+ * - 변경 감지로 한 건씩 update 하지 않고 update/delete 쿼리 한 번으로 chunkSize 건씩 처리
+ * - 대상 id 를 id 순서로 chunkSize 개씩 뽑고(키셋) 그 id 들만 수정하기 때문에 조건에 team 조인이나 서브쿼리를 써도 됨
+ *   (조건에서 team 은 QTeam.team 별칭으로 left join 되어 있음)
+ * - 벌크 쿼리는 영속성 컨텍스트를 거치지 않으므로
+ *   실행 전에 flush 해서 아직 반영 안 된 변경을 먼저 보내고,
+ *   실행 후에는 이미 로딩된 대상 Member 를 refresh(삭제면 detach), 팀이 바뀌었으면 members 가 로딩된 Team 을 refresh 함
+ * - 벌크 쿼리는 TeamStatsListener 를 거치지 않으므로 대상 회원이 속했던(옮겨간) 팀의 TeamStats 를 마지막에 다시 집계함
+ *
+ * 조건은 chunk 마다 다시 평가됨. 수정하는 컬럼을 다른 row 기준으로 비교하는 조건(age in (select age ...) 등)은
+ * 앞 chunk 에서 바뀐 값이 뒤 chunk 의 대상에 영향을 줄 수 있음
+ */
+@Service
+public class BulkUpdateService {
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final TeamStatsRepository teamStatsRepository;
+    private final int chunkSize;
+
+    public BulkUpdateService(EntityManager em, TeamStatsRepository teamStatsRepository,
+                             @Value("${querydsl.bulk.chunk-size:1000}") int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+        this.em = em;
+        this.queryFactory = new JPAQueryFactory(em);
+        this.teamStatsRepository = teamStatsRepository;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * 조건에 맞는 회원 나이를 delta 만큼 더함
+     *
+     * @return 수정된 row 수
+     */
+    @Transactional
+    public long addAge(Predicate where, int delta) {
+        return update(where, clause -> clause.set(member.age, member.age.add(delta)));
+    }
+
+    /**
+     * 조건에 맞는 회원을 team 으로 옮김. team 이 null 이면 팀에서 뺌
+     */
+    @Transactional
+    public long changeTeam(Predicate where, Team team) {
+        Set<Long> affectedTeams = new HashSet<>();
+        long rows = update(where, clause -> {
+            if (team == null) {
+                clause.setNull(member.team);
+            } else {
+                clause.set(member.team, team);
+            }
+        }, affectedTeams);
+        if (team != null && rows > 0) {
+            affectedTeams.add(team.getId());
+        }
+        teamStatsRepository.rebuild(affectedTeams);
+        refreshLoadedTeamMembers();
+        return rows;
+    }
+
+    /**
+     * 조건에 맞는 회원에 set 절을 적용
+     * set 절에서 Member.team 을 바꾼다면 changeTeam 을 쓸 것 (Team.members 를 다시 읽어야 함)
+     */
+    @Transactional
+    public long update(Predicate where, Consumer<JPAUpdateClause> set) {
+        Set<Long> affectedTeams = new HashSet<>();
+        long rows = update(where, set, affectedTeams);
+        teamStatsRepository.rebuild(affectedTeams);
+        return rows;
+    }
+
+    /**
+     * 조건에 맞는 회원 삭제
+     */
+    @Transactional
+    public long delete(Predicate where) {
+        Set<Long> affectedTeams = new HashSet<>();
+        long rows = forEachChunk(where, ids -> {
+            affectedTeams.addAll(teamIds(ids));
+            long deleted = queryFactory.delete(member).where(chunk(ids)).execute();
+            synchronize(ids, true);
+            return deleted;
+        });
+        teamStatsRepository.rebuild(affectedTeams);
+        refreshLoadedTeamMembers();
+        return rows;
+    }
+
+    private long update(Predicate where, Consumer<JPAUpdateClause> set, Set<Long> affectedTeams) {
+        return forEachChunk(where, ids -> {
+            affectedTeams.addAll(teamIds(ids));
+            JPAUpdateClause clause = queryFactory.update(member).where(chunk(ids));
+            set.accept(clause);
+            long rows = clause.execute();
+            synchronize(ids, false);
+            return rows;
+        });
+    }
+
+    private List<Long> teamIds(List<Long> ids) {
+        return queryFactory
+                .select(member.team.id).distinct()
+                .from(member)
+                .where(member.id.in(ids), member.team.isNotNull())
+                .fetch();
+    }
+
+    private long forEachChunk(Predicate where, ToLongFunction<List<Long>> action) {
+        em.flush();
+
+        long rows = 0;
+        Long lastId = null;
+        while (true) {
+            List<Long> ids = queryFactory
+                    .select(member.id)
+                    .from(member)
+                    .leftJoin(member.team, team)
+                    .where(where, lastId == null ? null : member.id.gt(lastId))
+                    .orderBy(member.id.asc())
+                    .limit(chunkSize)
+                    .fetch();
+            if (ids.isEmpty()) {
+                return rows;
+            }
+            rows += action.applyAsLong(ids);
+            if (ids.size() < chunkSize) {
+                return rows;
+            }
+            lastId = ids.get(ids.size() - 1);
+        }
+    }
+
+    /**
+     * chunk 의 id 는 정렬되어 있으므로 between 으로 PK 범위를 먼저 좁힘
+     * 범위 안의 row 가 모두 대상이면(전체 수정 같은 경우) in 절 없이 범위만으로 수정함
+     * (H2 는 update/delete 에서 in 절을 row 마다 목록 전체와 비교하기 때문에 chunk 가 크면 in 절 비용이 큼)
+     */
+    private BooleanExpression chunk(List<Long> ids) {
+        BooleanExpression range = member.id.between(ids.get(0), ids.get(ids.size() - 1));
+        Long rowsInRange = queryFactory.select(member.count()).from(member).where(range).fetchOne();
+        return rowsInRange != null && rowsInRange == ids.size() ? range : range.and(member.id.in(ids));
+    }
+
+    /**
+     * 영속성 컨텍스트에 로딩된 Member 중 이번 chunk 대상만 다시 읽거나(수정) 떼어냄(삭제)
+     */
+    private void synchronize(List<Long> ids, boolean removed) {
+        Set<Long> targets = new HashSet<>(ids);
+        for (Object entity : managedEntities()) {
+            if (entity instanceof Member && targets.contains(((Member) entity).getId())) {
+                if (removed) {
+                    em.detach(entity);
+                } else {
+                    em.refresh(entity);
+                }
+            }
+        }
+    }
+
+    /**
+     * 회원의 팀이 바뀌거나 회원이 지워졌으면 이미 초기화된 Team.members 는 맞지 않으므로 다시 읽음
+     */
+    private void refreshLoadedTeamMembers() {
+        for (Object entity : managedEntities()) {
+            if (entity instanceof Team && Hibernate.isInitialized(((Team) entity).getMembers())) {
+                em.refresh(entity);
+            }
+        }
+    }
+
+    private List<Object> managedEntities() {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        List<Object> entities = new ArrayList<>();
+        for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContext().reentrantSafeEntityEntries()) {
+            if (entry.getValue().getStatus() == Status.MANAGED) {
+                entities.add(entry.getKey());
+            }
+        }
+        return entities;
+    }
+}
@@ -0,0 +1,102 @@
+package com.mincheol.querydsl.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mincheol.querydsl.dto.MemberDto;
+import com.mincheol.querydsl.dto.QMemberDto;
+import com.mincheol.querydsl.support.StreamingQueryExecutor;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import static com.mincheol.querydsl.entity.QMember.member;
+
+/**
+ * 전체 회원을 MemberDto JSON 으로 내보내기
+ * List 로 fetch() 하지 않고 커서(StreamingQueryExecutor)에서 읽는 대로 Jackson JsonGenerator 로 바로 씀
+ * - DTO 프로젝션이라 영속성 컨텍스트에 아무것도 안 올라감 -> 행 수와 상관없이 힙 사용량이 일정함
+ * - 첫 row 는 바로, 이후 flush-interval 건마다 flush 해서 클라이언트가 받는 대로 처리할 수 있게 함
+ */
+@Service
+public class MemberExportService {
+
+    public enum Format {
+        NDJSON,     // 한 줄에 하나 (application/x-ndjson)
+        ARRAY       // [ {...}, {...} ]
+    }
+
+    private final JPAQueryFactory queryFactory;
+    private final StreamingQueryExecutor streamingQueryExecutor;
+    private final ObjectMapper objectMapper;
+    private final int flushInterval;
+
+    public MemberExportService(EntityManager em,
+                               StreamingQueryExecutor streamingQueryExecutor,
+                               ObjectMapper objectMapper,
+                               @Value("${querydsl.export.flush-interval:1000}") int flushInterval) {
+        if (flushInterval < 1) {
+            throw new IllegalArgumentException("flushInterval must be positive");
+        }
+        this.queryFactory = new JPAQueryFactory(em);
+        this.streamingQueryExecutor = streamingQueryExecutor;
+        this.objectMapper = objectMapper;
+        this.flushInterval = flushInterval;
+    }
+
+    /**
+     * @return 내보낸 회원 수. out 은 닫지 않음
+     */
+    @Transactional(readOnly = true)
+    public long export(OutputStream out, Format format) {
+        // PK 순서라 정렬 없이 인덱스 순서대로 읽음
+        try (Stream<MemberDto> rows = streamingQueryExecutor.stream(queryFactory
+                     .select(new QMemberDto(member.username, member.age))
+                     .from(member)
+                     .orderBy(member.id.asc()));
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);  // 기본값은 루트 값 사이에 공백. NDJSON 은 줄바꿈을 직접 씀
+            return write(rows.iterator(), generator, format);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);  // 대부분 클라이언트가 연결을 끊은 경우. 커서는 try 에서 닫힘
+        }
+    }
+
+    private long write(Iterator<MemberDto> rows, JsonGenerator generator, Format format) throws IOException {
+        if (format == Format.ARRAY) {
+            generator.writeStartArray();
+        }
+
+        long count = 0;
+        while (rows.hasNext()) {
+            MemberDto dto = rows.next();
+            generator.writeStartObject();
+            generator.writeStringField("username", dto.getUsername());
+            generator.writeNumberField("age", dto.getAge());
+            generator.writeEndObject();
+            if (format == Format.NDJSON) {
+                generator.writeRaw('\n');
+            }
+
+            count++;
+            if (count == 1 || count % flushInterval == 0) {
+                generator.flush();
+            }
+        }
+
+        if (format == Format.ARRAY) {
+            generator.writeEndArray();
+        }
+        generator.flush();
+        return count;
+    }
+}
@@ -0,0 +1,132 @@
+package com.mincheol.querydsl.snapshot;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 회원 스냅샷의 컬럼 배열. 행 i 의 값은 ids[i], ages[i], teams[i], usernames[i]
+ * - age, member_id 는 기본형 배열 그대로
+ * - username, team 은 사전 코드(int). 값은 usernameValues[code], teamIds[code] / teamNames[code] (null = -1)
+ *   팀 이름이 바뀌어도 teamNames 한 칸만 바꾸면 됨
+ * - 행은 member_id 순서로 정렬해 두고 id 로 찾을 때 이진 탐색 (id -> 행 해시맵은 행마다 컬럼 배열만큼 메모리를 더 씀)
+ *   시퀀스 순서대로 들어오는 회원은 끝에 붙고, 중간 삽입/삭제는 뒤쪽 행을 한 칸씩 밀어서 O(행 수)
+ *
+ * 잠금은 MemberSnapshot 이 함. 이 클래스는 스레드 안전하지 않음
+ */
+final class MemberColumns {
+
+    static final int NULL = -1;
+
+    long[] ids;
+    int[] ages;
+    int[] teams;
+    int[] usernames;
+    int size;
+
+    String[] usernameValues;
+    int usernameCount;
+
+    long[] teamIds = new long[16];
+    String[] teamNames = new String[16];
+    int teamCount;
+    private final Map<Long, Integer> teamCodes = new HashMap<>();
+
+    MemberColumns(int capacity) {
+        capacity = Math.max(capacity, 16);
+        ids = new long[capacity];
+        ages = new int[capacity];
+        teams = new int[capacity];
+        usernames = new int[capacity];
+        usernameValues = new String[capacity];
+    }
+
+    /**
+     * 회원 저장. 이미 있는 id 면 값을 바꿈 (같은 변경이 두 번 와도 결과가 같음)
+     */
+    void put(long id, int age, int username, int team) {
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        if (row < 0) {
+            row = -row - 1;
+            ensureCapacity(size + 1);
+            if (row < size) {
+                shift(row, row + 1, size - row);
+            }
+            ids[row] = id;
+            size++;
+        }
+        ages[row] = age;
+        usernames[row] = username;
+        teams[row] = team;
+    }
+
+    void remove(long id) {
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        if (row >= 0) {
+            shift(row + 1, row, size - row - 1);
+            size--;
+        }
+    }
+
+    /**
+     * username 을 사전에 추가하고 코드를 돌려줌. 중복은 확인하지 않음 (적재할 때만 MemberSnapshot 이 중복을 합침)
+     * 바뀌거나 지워진 회원의 username 은 사전에 남으므로 다음 적재 때 정리됨
+     */
+    int addUsername(String username) {
+        if (username == null) {
+            return NULL;
+        }
+        if (usernameCount == usernameValues.length) {
+            usernameValues = Arrays.copyOf(usernameValues, grow(usernameCount));
+        }
+        usernameValues[usernameCount] = username;
+        return usernameCount++;
+    }
+
+    /**
+     * 팀 저장 / 이름 변경. 팀 코드를 돌려줌
+     */
+    int putTeam(long teamId, String name) {
+        Integer code = teamCodes.get(teamId);
+        if (code != null) {
+            teamNames[code] = name;
+            return code;
+        }
+        if (teamCount == teamIds.length) {
+            teamIds = Arrays.copyOf(teamIds, grow(teamCount));
+            teamNames = Arrays.copyOf(teamNames, teamIds.length);
+        }
+        teamIds[teamCount] = teamId;
+        teamNames[teamCount] = name;
+        teamCodes.put(teamId, teamCount);
+        return teamCount++;
+    }
+
+    /**
+     * @return 팀 코드. 팀 id 가 null 이면 NULL, 모르는 팀이면 null
+     */
+    Integer teamCode(Long teamId) {
+        return teamId == null ? Integer.valueOf(NULL) : teamCodes.get(teamId);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > ids.length) {
+            int length = grow(ids.length);
+            ids = Arrays.copyOf(ids, length);
+            ages = Arrays.copyOf(ages, length);
+            teams = Arrays.copyOf(teams, length);
+            usernames = Arrays.copyOf(usernames, length);
+        }
+    }
+
+    private void shift(int from, int to, int length) {
+        System.arraycopy(ids, from, ids, to, length);
+        System.arraycopy(ages, from, ages, to, length);
+        System.arraycopy(teams, from, teams, to, length);
+        System.arraycopy(usernames, from, usernames, to, length);
+    }
+
+    private static int grow(int length) {
+        return length + Math.max(length >> 1, 16);
+    }
+}
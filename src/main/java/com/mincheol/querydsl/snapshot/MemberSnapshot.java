@@ -0,0 +1,365 @@
+package com.mincheol.querydsl.snapshot;
+
+import com.mincheol.querydsl.dto.TeamStatsDto;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Operator;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 회원(age, username, team)을 컬럼 배열로 메모리에 올려두고 대시보드용 집계를 DB 없이 계산함
+ * aggregation / group / 나이 구간 같은 쿼리는 결국 member 를 전부 읽는데, 엔티티 대신 기본형 배열만 훑으므로
+ * 행마다 객체 생성/박싱이 없고 회원 한 명에 배열 20 바이트 + username 문자열만 씀
+ *
+ * snapshot.count(member.age.between(20, 29).and(member.team.name.eq("teamA")))
+ * snapshot.aggregate(member.age.avg(), member.username.startsWith("member1"))
+ * snapshot.ageStatsByTeamName(null)   // select team.name, count, sum, avg, min, max ... group by team.name
+ *
+ * - 조건은 QMember / QTeam Predicate 그대로 (SnapshotFilters 참고)
+ * - 첫 조회 때 member / team 을 JDBC 로 한 번 읽음. 이후에는 MemberSnapshotListener 가 커밋된 엔티티 변경만 반영함
+ *   (롤백된 변경은 반영되지 않음)
+ * - 벌크 update/delete, 네이티브 쿼리, DataSeeder 처럼 이벤트가 없는 변경 뒤에는 refresh() 로 다시 읽음
+ * - 조회는 읽기 잠금, 변경 반영/다시 읽기는 쓰기 잠금
+ *
+ * 적재할 때 username 중복을 합치는 HashMap 을 잠깐 만들므로 회원 수만큼 메모리가 더 필요함
+ * querydsl.snapshot.enabled=true 일 때만 등록됨 (MemberSnapshotListenerRegistrar 와 같이)
+ */
+@Component
+@ConditionalOnProperty(prefix = "querydsl.snapshot", name = "enabled", havingValue = "true")
+public class MemberSnapshot {
+
+    private static final String COUNT_MEMBERS = "select count(*) from member";
+    private static final String SELECT_TEAMS = "select team_id, name from team";
+    private static final String SELECT_MEMBERS = "select member_id, age, username, team_id from member order by member_id";
+    private static final String SELECT_TEAM = "select name from team where team_id = ?";
+
+    private final DataSource dataSource;
+    private final int fetchSize;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile MemberColumns columns;   // null = 아직 안 읽음
+
+    public MemberSnapshot(DataSource dataSource,
+                          @Value("${querydsl.snapshot.fetch-size:10000}") int fetchSize) {
+        this.dataSource = dataSource;
+        this.fetchSize = fetchSize;
+    }
+
+    public long count(Predicate where) {
+        lock.readLock().lock();
+        try {
+            MemberColumns columns = loaded();
+            RowFilter filter = SnapshotFilters.compile(where, columns);
+            if (filter == null) {
+                return columns.size;
+            }
+            long count = 0;
+            for (int row = 0, size = columns.size; row < size; row++) {
+                if (filter.test(row)) {
+                    count++;
+                }
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * member.count(), member.age.sum(), member.age.avg(), member.age.min(), member.age.max() (member.id 도 됨)
+     * 결과 타입 : count, sum -> Long, avg -> Double, min/max -> 컬럼 타입. 맞는 회원이 없으면 count 는 0, 나머지는 null
+     * (Querydsl 은 sum(age) 를 Integer 로 돌려주지만 회원이 수천만 명이면 int 를 넘으므로 Long)
+     */
+    public Number aggregate(Expression<? extends Number> aggregate, Predicate where) {
+        if (!(aggregate instanceof Operation)) {
+            throw new IllegalArgumentException("Unsupported aggregate " + aggregate + " in member snapshot");
+        }
+        Operation<?> operation = (Operation<?>) aggregate;
+        Operator operator = operation.getOperator();
+        Expression<?> arg = operation.getArg(0);
+        if (operator == Ops.AggOps.COUNT_AGG) {
+            // count(member) 는 모든 행, count(member.username) 은 null 이 아닌 행
+            boolean root = arg instanceof Path && ((Path<?>) arg).getMetadata().isRoot();
+            return root ? count(where) : count(ExpressionUtils.and(ExpressionUtils.predicate(Ops.IS_NOT_NULL, arg), where));
+        }
+
+        SnapshotFilters.Column column = SnapshotFilters.numericColumn(arg);
+        Accumulator accumulator = accumulate(column, where);
+        if (operator == Ops.AggOps.SUM_AGG) {
+            return accumulator.count == 0 ? null : accumulator.sum;
+        } else if (operator == Ops.AggOps.AVG_AGG) {
+            return accumulator.count == 0 ? null : (double) accumulator.sum / accumulator.count;
+        } else if (operator == Ops.AggOps.MIN_AGG) {
+            return accumulator.count == 0 ? null : column == SnapshotFilters.Column.AGE ? (Number) (int) accumulator.min : accumulator.min;
+        } else if (operator == Ops.AggOps.MAX_AGG) {
+            return accumulator.count == 0 ? null : column == SnapshotFilters.Column.AGE ? (Number) (int) accumulator.max : accumulator.max;
+        }
+        throw new IllegalArgumentException("Unsupported aggregate " + aggregate + " in member snapshot");
+    }
+
+    /**
+     * 팀 이름별 나이 통계 (팀 없는 회원은 빠짐). 이름으로 묶으므로 teamId 는 null, 이름순 (null 이름이 먼저)
+     * select team.name, count(member), sum(member.age), min(member.age), max(member.age)
+     * from member join member.team team where ... group by team.name 과 같음
+     */
+    public List<TeamStatsDto> ageStatsByTeamName(Predicate where) {
+        long[] counts;
+        long[] sums;
+        int[] mins;
+        int[] maxs;
+        String[] names;
+        lock.readLock().lock();
+        try {
+            MemberColumns columns = loaded();
+            RowFilter filter = SnapshotFilters.compile(where, columns);
+            int teamCount = columns.teamCount;
+            counts = new long[teamCount];
+            sums = new long[teamCount];
+            mins = new int[teamCount];
+            maxs = new int[teamCount];
+            int[] teams = columns.teams;
+            int[] ages = columns.ages;
+            for (int row = 0, size = columns.size; row < size; row++) {
+                int team = teams[row];
+                if (team == MemberColumns.NULL || (filter != null && !filter.test(row))) {
+                    continue;
+                }
+                int age = ages[row];
+                if (counts[team]++ == 0) {
+                    mins[team] = age;
+                    maxs[team] = age;
+                } else {
+                    mins[team] = Math.min(mins[team], age);
+                    maxs[team] = Math.max(maxs[team], age);
+                }
+                sums[team] += age;
+            }
+            names = columns.teamNames.clone();
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // 팀 코드별 -> 이름별 (이름이 같은 팀은 합침)
+        Map<String, Integer> groups = new LinkedHashMap<>();
+        List<long[]> stats = new ArrayList<>();    // {count, sum, min, max}
+        for (int team = 0; team < counts.length; team++) {
+            if (counts[team] == 0) {
+                continue;
+            }
+            Integer group = groups.get(names[team]);
+            if (group == null) {
+                groups.put(names[team], stats.size());
+                stats.add(new long[]{counts[team], sums[team], mins[team], maxs[team]});
+            } else {
+                long[] merged = stats.get(group);
+                merged[0] += counts[team];
+                merged[1] += sums[team];
+                merged[2] = Math.min(merged[2], mins[team]);
+                merged[3] = Math.max(merged[3], maxs[team]);
+            }
+        }
+        List<TeamStatsDto> result = new ArrayList<>(groups.size());
+        for (Map.Entry<String, Integer> group : groups.entrySet()) {
+            long[] merged = stats.get(group.getValue());
+            result.add(new TeamStatsDto(null, group.getKey(), merged[0], merged[1], (int) merged[2], (int) merged[3]));
+        }
+        result.sort(Comparator.comparing(TeamStatsDto::getTeamName, Comparator.nullsFirst(Comparator.naturalOrder())));
+        return result;
+    }
+
+    /**
+     * member / team 을 다시 읽음. 벌크 쿼리, 네이티브 쿼리, DataSeeder 처럼 이벤트 없이 바뀐 뒤에 호출
+     */
+    public void refresh() {
+        lock.writeLock().lock();
+        try {
+            columns = load();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 스냅샷의 회원 수 (처음이면 읽음)
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return loaded().size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 커밋된 변경 반영 (MemberSnapshotListener). 아직 안 읽었으면 무시 (처음 읽을 때 들어옴)
+
+    void putMember(long id, int age, String username, Long teamId) {
+        lock.writeLock().lock();
+        try {
+            MemberColumns columns = this.columns;
+            if (columns != null) {
+                columns.put(id, age, columns.addUsername(username), teamCode(columns, teamId));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void removeMember(long id) {
+        lock.writeLock().lock();
+        try {
+            if (columns != null) {
+                columns.remove(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void putTeam(long id, String name) {
+        lock.writeLock().lock();
+        try {
+            if (columns != null) {
+                columns.putTeam(id, name);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // 읽기 잠금을 잡은 상태에서 호출. 처음이면 읽기 잠금을 놓고 쓰기 잠금으로 읽은 뒤 다시 읽기 잠금
+    private MemberColumns loaded() {
+        MemberColumns loaded = columns;
+        if (loaded != null) {
+            return loaded;
+        }
+        lock.readLock().unlock();
+        lock.writeLock().lock();
+        try {
+            if (columns == null) {
+                columns = load();
+            }
+            return columns;
+        } finally {
+            lock.readLock().lock();
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Accumulator accumulate(SnapshotFilters.Column column, Predicate where) {
+        Accumulator accumulator = new Accumulator();
+        lock.readLock().lock();
+        try {
+            MemberColumns columns = loaded();
+            RowFilter filter = SnapshotFilters.compile(where, columns);
+            int size = columns.size;
+            if (column == SnapshotFilters.Column.AGE) {
+                int[] ages = columns.ages;
+                for (int row = 0; row < size; row++) {
+                    if (filter == null || filter.test(row)) {
+                        accumulator.add(ages[row]);
+                    }
+                }
+            } else {
+                long[] ids = columns.ids;
+                for (int row = 0; row < size; row++) {
+                    if (filter == null || filter.test(row)) {
+                        accumulator.add(ids[row]);
+                    }
+                }
+            }
+            return accumulator;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private MemberColumns load() {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.setFetchSize(fetchSize);
+            MemberColumns loading;
+            try (ResultSet rs = statement.executeQuery(COUNT_MEMBERS)) {
+                rs.next();
+                loading = new MemberColumns(rs.getInt(1));
+            }
+
+            try (ResultSet rs = statement.executeQuery(SELECT_TEAMS)) {
+                while (rs.next()) {
+                    loading.putTeam(rs.getLong(1), rs.getString(2));
+                }
+            }
+
+            Map<String, Integer> usernameCodes = new HashMap<>();
+            try (ResultSet rs = statement.executeQuery(SELECT_MEMBERS)) {
+                while (rs.next()) {
+                    String username = rs.getString(3);
+                    int usernameCode = username == null
+                            ? MemberColumns.NULL
+                            : usernameCodes.computeIfAbsent(username, loading::addUsername);
+                    long teamId = rs.getLong(4);
+                    Integer teamCode = rs.wasNull() ? Integer.valueOf(MemberColumns.NULL) : loading.teamCode(teamId);
+                    if (teamCode == null) {
+                        teamCode = loading.putTeam(teamId, null);   // 외래키를 잠깐 끈 사이(DataSeeder)에 들어간 회원
+                    }
+                    loading.put(rs.getLong(1), rs.getInt(2), usernameCode, teamCode);
+                }
+            }
+            return loading;
+        } catch (SQLException e) {
+            throw new IllegalStateException("member snapshot load failed", e);
+        }
+    }
+
+    // 아직 모르는 팀(같은 커밋의 팀 저장 이벤트가 회원보다 늦게 온 경우)은 이름을 DB 에서 읽음
+    private int teamCode(MemberColumns columns, Long teamId) {
+        Integer code = columns.teamCode(teamId);
+        if (code != null) {
+            return code;
+        }
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement select = connection.prepareStatement(SELECT_TEAM)) {
+            select.setLong(1, teamId);
+            try (ResultSet rs = select.executeQuery()) {
+                return columns.putTeam(teamId, rs.next() ? rs.getString(1) : null);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("team lookup failed: " + teamId, e);
+        }
+    }
+
+    private static class Accumulator {
+
+        long count;
+        long sum;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+
+        void add(long value) {
+            count++;
+            sum += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+    }
+}
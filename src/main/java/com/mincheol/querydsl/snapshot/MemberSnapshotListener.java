@@ -0,0 +1,75 @@
+package com.mincheol.querydsl.snapshot;
+
+import com.mincheol.querydsl.entity.Member;
+import com.mincheol.querydsl.entity.Team;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+
+/**
+ * 커밋된 Member / Team 저장/수정/삭제를 MemberSnapshot 에 반영하는 Hibernate 이벤트 리스너 (스냅샷의 변경 피드)
+ * TeamStatsListener 와 달리 DB 가 아니라 메모리를 고치므로 flush 때가 아니라 커밋이 끝난 뒤에 반영함 -> 롤백된 변경은 오지 않음
+ * 이벤트에 변경 후 값이 모두 들어 있으므로 회원 한 명을 통째로 덮어씀 (같은 변경이 두 번 와도 결과가 같음)
+ *
+ * 벌크 update/delete, 네이티브 쿼리는 이벤트가 없으므로 반영되지 않음 -> MemberSnapshot.refresh()
+ */
+public class MemberSnapshotListener implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+
+    private final MemberSnapshot snapshot;
+
+    public MemberSnapshotListener(MemberSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        put(event.getEntity(), event.getId(), event.getPersister(), event.getState());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        put(event.getEntity(), event.getId(), event.getPersister(), event.getState());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        // 팀은 회원이 없어야 지워지므로(외래키) 사전에 남겨둠
+        if (event.getEntity() instanceof Member) {
+            snapshot.removeMember((Long) event.getId());
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return true;
+    }
+
+    private void put(Object entity, Object id, EntityPersister persister, Object[] state) {
+        if (entity instanceof Member) {
+            Object team = state[persister.getEntityMetamodel().getPropertyIndex("team")];
+            snapshot.putMember((Long) id,
+                    (Integer) state[persister.getEntityMetamodel().getPropertyIndex("age")],
+                    (String) state[persister.getEntityMetamodel().getPropertyIndex("username")],
+                    team == null ? null : ((Team) team).getId());    // 프록시여도 id 는 초기화 없이 읽힘
+        } else if (entity instanceof Team) {
+            snapshot.putTeam((Long) id, (String) state[persister.getEntityMetamodel().getPropertyIndex("name")]);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.mincheol.querydsl.snapshot;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * MemberSnapshotListener 를 SessionFactory 의 커밋 후 이벤트에 등록
+ * querydsl.snapshot.enabled=true 일 때만 (MemberSnapshot 과 같이)
+ */
+@Component
+@ConditionalOnProperty(prefix = "querydsl.snapshot", name = "enabled", havingValue = "true")
+public class MemberSnapshotListenerRegistrar {
+
+    private final EntityManagerFactory emf;
+    private final MemberSnapshot snapshot;
+
+    public MemberSnapshotListenerRegistrar(EntityManagerFactory emf, MemberSnapshot snapshot) {
+        this.emf = emf;
+        this.snapshot = snapshot;
+    }
+
+    @PostConstruct
+    public void register() {
+        MemberSnapshotListener listener = new MemberSnapshotListener(snapshot);
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, listener);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, listener);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, listener);
+    }
+}
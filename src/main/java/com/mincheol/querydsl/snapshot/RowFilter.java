@@ -0,0 +1,10 @@
+package com.mincheol.querydsl.snapshot;
+
+/**
+ * 스냅샷 행 번호를 받는 조건. 컬럼 배열을 직접 읽으므로 행마다 박싱/객체 생성이 없음
+ */
+@FunctionalInterface
+interface RowFilter {
+
+    boolean test(int row);
+}
@@ -0,0 +1,373 @@
+package com.mincheol.querydsl.snapshot;
+
+import com.mincheol.querydsl.entity.Member;
+import com.mincheol.querydsl.entity.Team;
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Operator;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.PathMetadata;
+import com.querydsl.core.types.PathType;
+import com.querydsl.core.types.Predicate;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.LongPredicate;
+import java.util.regex.Pattern;
+
+/**
+ * QMember / QTeam 조건(Predicate)을 스냅샷 행 조건(RowFilter)으로 바꿈
+ * - member.id / member.age : 행마다 기본형 배열 값을 바로 비교 (범위 조건은 from <= v <= to 하나로)
+ * - member.username / member.team.id / member.team.name : 사전 값마다 조건을 한 번씩만 계산해서 boolean[] 로 만들고
+ *   행마다 코드로 찾음. 팀이 100개면 team.name.startsWith(...) 도 문자열 비교는 100번
+ * - team(QTeam) 은 join(member.team, team) 한 것으로 봄. team 이름 조건이 있으면 팀 없는 회원은 빠짐 (JPQL 의 내부 조인과 같음)
+ * - null 은 SQL 처럼 비교 결과가 '모름' : username.ne("a") 도, not(username.eq("a")) 도 username 이 null 인 회원은 빠짐
+ *
+ * 상수와 비교하는 조건만 됨 (member.age.eq(member.id) 같은 경로끼리 비교, 함수, 서브쿼리는 IllegalArgumentException)
+ */
+final class SnapshotFilters {
+
+    enum Column {ID, AGE, USERNAME, TEAM_ID, TEAM_NAME}
+
+    private final MemberColumns columns;
+    private boolean joinsTeam;
+
+    private SnapshotFilters(MemberColumns columns) {
+        this.columns = columns;
+    }
+
+    /**
+     * @return 행 조건. where 가 비어 있으면 null (모든 행)
+     */
+    static RowFilter compile(Predicate where, MemberColumns columns) {
+        if (where instanceof BooleanBuilder) {
+            where = ((BooleanBuilder) where).getValue();
+        }
+        if (where == null) {
+            return null;
+        }
+        SnapshotFilters filters = new SnapshotFilters(columns);
+        RowFilter filter = filters.compile(where, false);
+        if (!filters.joinsTeam) {
+            return filter;
+        }
+        int[] teams = columns.teams;
+        return row -> teams[row] != MemberColumns.NULL && filter.test(row);
+    }
+
+    /**
+     * sum / avg / min / max 를 계산할 수 있는 숫자 컬럼 (member.age, member.id)
+     */
+    static Column numericColumn(Expression<?> expr) {
+        if (expr instanceof Path) {
+            Column column = new SnapshotFilters(null).column((Path<?>) expr, expr);
+            if (column == Column.AGE || column == Column.ID) {
+                return column;
+            }
+        }
+        throw unsupported(expr);
+    }
+
+    // negated : 위쪽에 not 이 홀수 번 있음. not 을 말단 조건까지 내려서 null 을 SQL 처럼 다룸
+    private RowFilter compile(Expression<?> expr, boolean negated) {
+        if (!(expr instanceof Operation)) {
+            throw unsupported(expr);
+        }
+        Operation<?> operation = (Operation<?>) expr;
+        Operator operator = operation.getOperator();
+        if (operator == Ops.NOT) {
+            return compile(operation.getArg(0), !negated);
+        }
+        if (operator == Ops.AND || operator == Ops.OR) {
+            RowFilter left = compile(operation.getArg(0), negated);
+            RowFilter right = compile(operation.getArg(1), negated);
+            // not (a and b) = not a or not b
+            if ((operator == Ops.AND) != negated) {
+                return row -> left.test(row) && right.test(row);
+            }
+            return row -> left.test(row) || right.test(row);
+        }
+
+        if (!(operation.getArg(0) instanceof Path)) {
+            throw unsupported(expr);
+        }
+        Column column = column((Path<?>) operation.getArg(0), expr);
+        if (operator == Ops.IS_NULL || operator == Ops.IS_NOT_NULL) {
+            return isNull(column, (operator == Ops.IS_NULL) != negated);
+        }
+        switch (column) {
+            case ID:
+            case AGE:
+                return numeric(column, operation, negated);
+            case TEAM_ID:
+                LongPredicate teamIdTest = longTest(operation);
+                boolean[] teamIdMatch = new boolean[columns.teamCount];
+                for (int code = 0; code < teamIdMatch.length; code++) {
+                    teamIdMatch[code] = teamIdTest.test(columns.teamIds[code]) != negated;
+                }
+                return dictionary(columns.teams, teamIdMatch);
+            default:
+                boolean username = column == Column.USERNAME;
+                java.util.function.Predicate<String> test = stringTest(operation);
+                String[] values = username ? columns.usernameValues : columns.teamNames;
+                boolean[] match = new boolean[username ? columns.usernameCount : columns.teamCount];
+                for (int code = 0; code < match.length; code++) {
+                    String value = values[code];
+                    match[code] = value != null && test.test(value) != negated;
+                }
+                return dictionary(username ? columns.usernames : columns.teams, match);
+        }
+    }
+
+    private RowFilter numeric(Column column, Operation<?> operation, boolean negated) {
+        Operator operator = operation.getOperator();
+        if (operator == Ops.IN || operator == Ops.NOT_IN) {
+            LongPredicate test = longTest(operation);
+            boolean expected = !negated;
+            if (column == Column.AGE) {
+                int[] ages = columns.ages;
+                return row -> test.test(ages[row]) == expected;
+            }
+            long[] ids = columns.ids;
+            return row -> test.test(ids[row]) == expected;
+        }
+
+        long[] range = range(operation);
+        long from = range[0];
+        long to = range[1];
+        boolean inside = (operator != Ops.NE) != negated;
+        if (column == Column.AGE) {
+            int[] ages = columns.ages;
+            return inside
+                    ? row -> ages[row] >= from && ages[row] <= to
+                    : row -> ages[row] < from || ages[row] > to;
+        }
+        long[] ids = columns.ids;
+        return inside
+                ? row -> ids[row] >= from && ids[row] <= to
+                : row -> ids[row] < from || ids[row] > to;
+    }
+
+    private RowFilter isNull(Column column, boolean isNull) {
+        switch (column) {
+            case ID:
+            case AGE:
+                return isNull ? row -> false : row -> true;
+            case USERNAME:
+                int[] usernames = columns.usernames;
+                return isNull ? row -> usernames[row] == MemberColumns.NULL : row -> usernames[row] != MemberColumns.NULL;
+            case TEAM_ID:
+                int[] teams = columns.teams;
+                return isNull ? row -> teams[row] == MemberColumns.NULL : row -> teams[row] != MemberColumns.NULL;
+            default:
+                boolean[] match = new boolean[columns.teamCount];
+                for (int code = 0; code < match.length; code++) {
+                    match[code] = (columns.teamNames[code] == null) == isNull;
+                }
+                return dictionary(columns.teams, match);
+        }
+    }
+
+    private static RowFilter dictionary(int[] codes, boolean[] match) {
+        return row -> {
+            int code = codes[row];
+            return code != MemberColumns.NULL && match[code];
+        };
+    }
+
+    private LongPredicate longTest(Operation<?> operation) {
+        Operator operator = operation.getOperator();
+        if (operator == Ops.IN || operator == Ops.NOT_IN) {
+            long[] values = constants(operation).stream()
+                    .mapToLong(SnapshotFilters::longValue)
+                    .sorted()
+                    .toArray();
+            return operator == Ops.IN
+                    ? value -> Arrays.binarySearch(values, value) >= 0
+                    : value -> Arrays.binarySearch(values, value) < 0;
+        }
+        long[] range = range(operation);
+        long from = range[0];
+        long to = range[1];
+        return operator == Ops.NE
+                ? value -> value < from || value > to
+                : value -> value >= from && value <= to;
+    }
+
+    // 비교 조건을 [from, to] 로. ne 는 eq 와 같은 범위 (호출하는 쪽에서 뒤집음)
+    private long[] range(Operation<?> operation) {
+        Operator operator = operation.getOperator();
+        if (operator == Ops.BETWEEN) {
+            return new long[]{longValue(constant(operation, 1)), longValue(constant(operation, 2))};
+        }
+        long value = longValue(constant(operation, 1));
+        if (operator == Ops.EQ || operator == Ops.NE) {
+            return new long[]{value, value};
+        } else if (operator == Ops.LT) {
+            return new long[]{Long.MIN_VALUE, value - 1};
+        } else if (operator == Ops.LOE) {
+            return new long[]{Long.MIN_VALUE, value};
+        } else if (operator == Ops.GT) {
+            return new long[]{value + 1, Long.MAX_VALUE};
+        } else if (operator == Ops.GOE) {
+            return new long[]{value, Long.MAX_VALUE};
+        }
+        throw unsupported(operation);
+    }
+
+    private java.util.function.Predicate<String> stringTest(Operation<?> operation) {
+        Operator operator = operation.getOperator();
+        if (operator == Ops.IN || operator == Ops.NOT_IN) {
+            Set<String> values = new HashSet<>();
+            for (Object value : constants(operation)) {
+                values.add(stringValue(value));
+            }
+            return operator == Ops.IN ? values::contains : value -> !values.contains(value);
+        }
+        if (operator == Ops.BETWEEN) {
+            String from = stringValue(constant(operation, 1));
+            String to = stringValue(constant(operation, 2));
+            return value -> value.compareTo(from) >= 0 && value.compareTo(to) <= 0;
+        }
+        if (!(operator instanceof Ops)) {
+            throw unsupported(operation);
+        }
+
+        String constant = stringValue(constant(operation, 1));
+        String lower = constant.toLowerCase(Locale.ROOT);
+        switch ((Ops) operator) {
+            case EQ:
+                return constant::equals;
+            case NE:
+                return value -> !value.equals(constant);
+            case EQ_IGNORE_CASE:
+                return constant::equalsIgnoreCase;
+            case LT:
+                return value -> value.compareTo(constant) < 0;
+            case LOE:
+                return value -> value.compareTo(constant) <= 0;
+            case GT:
+                return value -> value.compareTo(constant) > 0;
+            case GOE:
+                return value -> value.compareTo(constant) >= 0;
+            case STARTS_WITH:
+                return value -> value.startsWith(constant);
+            case STARTS_WITH_IC:
+                return value -> value.toLowerCase(Locale.ROOT).startsWith(lower);
+            case ENDS_WITH:
+                return value -> value.endsWith(constant);
+            case ENDS_WITH_IC:
+                return value -> value.toLowerCase(Locale.ROOT).endsWith(lower);
+            case STRING_CONTAINS:
+                return value -> value.contains(constant);
+            case STRING_CONTAINS_IC:
+                return value -> value.toLowerCase(Locale.ROOT).contains(lower);
+            case LIKE:
+                return like(constant, 0);
+            case LIKE_IC:
+                return like(constant, Pattern.CASE_INSENSITIVE);
+            default:
+                throw unsupported(operation);
+        }
+    }
+
+    // like 패턴 : % -> 임의 문자열, _ -> 한 글자. 나머지는 글자 그대로
+    private static java.util.function.Predicate<String> like(String pattern, int flags) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (char c : pattern.toCharArray()) {
+            if (c == '%' || c == '_') {
+                regex.append(Pattern.quote(literal.toString())).append(c == '%' ? ".*" : ".");
+                literal.setLength(0);
+            } else {
+                literal.append(c);
+            }
+        }
+        regex.append(Pattern.quote(literal.toString()));
+        Pattern compiled = Pattern.compile(regex.toString(), flags | Pattern.DOTALL);
+        return value -> compiled.matcher(value).matches();
+    }
+
+    private Column column(Path<?> path, Expression<?> expr) {
+        PathMetadata metadata = path.getMetadata();
+        Path<?> parent = metadata.getParent();
+        if (parent == null || metadata.getPathType() != PathType.PROPERTY) {
+            throw unsupported(expr);
+        }
+        String name = metadata.getName();
+        if (isMember(parent)) {
+            switch (name) {
+                case "id":
+                    return Column.ID;
+                case "age":
+                    return Column.AGE;
+                case "username":
+                    return Column.USERNAME;
+                case "team":
+                    return Column.TEAM_ID;     // member.team.eq(teamA), member.team.isNull()
+                default:
+                    throw unsupported(expr);
+            }
+        }
+        boolean joinedTeam = parent.getType() == Team.class && parent.getMetadata().isRoot();
+        boolean memberTeam = parent.getType() == Team.class && !parent.getMetadata().isRoot()
+                && "team".equals(parent.getMetadata().getName()) && isMember(parent.getMetadata().getParent());
+        if (joinedTeam || memberTeam) {
+            if ("id".equals(name)) {
+                joinsTeam |= joinedTeam;        // member.team.id 는 조인 없이 member.team_id 를 비교
+                return Column.TEAM_ID;
+            } else if ("name".equals(name)) {
+                joinsTeam = true;
+                return Column.TEAM_NAME;
+            }
+        }
+        throw unsupported(expr);
+    }
+
+    private static boolean isMember(Path<?> path) {
+        return path.getType() == Member.class && path.getMetadata().isRoot();
+    }
+
+    private static Object constant(Operation<?> operation, int index) {
+        Expression<?> arg = operation.getArg(index);
+        if (!(arg instanceof Constant)) {
+            throw unsupported(operation);
+        }
+        return ((Constant<?>) arg).getConstant();
+    }
+
+    private static Collection<?> constants(Operation<?> operation) {
+        Object values = constant(operation, 1);
+        if (!(values instanceof Collection)) {
+            throw unsupported(operation);
+        }
+        return (Collection<?>) values;
+    }
+
+    private static long longValue(Object value) {
+        if (value instanceof Team) {
+            return ((Team) value).getId();
+        }
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+        throw new IllegalArgumentException("Unsupported value " + value + " in member snapshot");
+    }
+
+    private static String stringValue(Object value) {
+        if (value instanceof String) {
+            return (String) value;
+        }
+        throw new IllegalArgumentException("Unsupported value " + value + " in member snapshot");
+    }
+
+    private static IllegalArgumentException unsupported(Expression<?> expr) {
+        return new IllegalArgumentException("Unsupported expression " + expr + " in member snapshot");
+    }
+}
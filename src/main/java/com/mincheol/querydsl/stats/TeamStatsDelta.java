@@ -0,0 +1,50 @@
+package com.mincheol.querydsl.stats;
+
+/**
+ * 한 번의 flush 동안 한 팀에 쌓인 변화량
+ */
+final class TeamStatsDelta {
+
+    private long count;
+    private long sum;
+    private Integer addedMin;
+    private Integer addedMax;
+    private boolean removals;
+
+    void add(int age) {
+        count++;
+        sum += age;
+        addedMin = addedMin == null ? age : Math.min(addedMin, age);
+        addedMax = addedMax == null ? age : Math.max(addedMax, age);
+    }
+
+    void remove(int age) {
+        count--;
+        sum -= age;
+        removals = true;
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    long getSum() {
+        return sum;
+    }
+
+    Integer getAddedMin() {
+        return addedMin;
+    }
+
+    Integer getAddedMax() {
+        return addedMax;
+    }
+
+    boolean hasRemovals() {
+        return removals;
+    }
+
+    boolean isEmpty() {
+        return addedMin == null && !removals;
+    }
+}
@@ -0,0 +1,174 @@
+package com.mincheol.querydsl.stats;
+
+import com.mincheol.querydsl.entity.Member;
+import com.mincheol.querydsl.entity.Team;
+import org.hibernate.BaseSessionEventListener;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Member 저장/수정/삭제를 TeamStats 에 반영하는 Hibernate 이벤트 리스너
+ * - insert/update/delete 이벤트마다 팀별 변화량만 모아두고
+ * - flush 가 끝날 때(member 변경 SQL 이 모두 실행된 뒤) 팀마다 update 한 번으로 team_stats 에 반영함
+ *   그래서 BulkInsertService 처럼 한 flush 에 수천 건을 넣어도 team_stats 갱신은 팀 수만큼만 실행됨
+ * - 같은 트랜잭션의 커넥션을 쓰므로 롤백되면 통계도 같이 롤백됨
+ *
+ * 벌크 update/delete, 네이티브 쿼리는 이벤트가 없으므로 반영되지 않음.
+ * BulkUpdateService 는 직접 다시 집계하고, 그 밖의 경우는 TeamStatsRepository.reconcile() 로 맞춤
+ */
+public class TeamStatsListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final Map<SessionImplementor, PendingStats> pending = new ConcurrentHashMap<>();
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member) {
+            EntityPersister persister = event.getPersister();
+            pending(event.getSession()).add(teamId(persister, event.getState()), age(persister, event.getState()));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Member)) {
+            return;
+        }
+        EntityPersister persister = event.getPersister();
+        Object[] oldState = event.getOldState();
+        Object[] state = event.getState();
+        PendingStats stats = pending(event.getSession());
+
+        if (oldState == null) {
+            // 준영속 엔티티를 session.update() 한 경우처럼 이전 값을 모르면 새 팀만 다시 집계
+            stats.rebuild(teamId(persister, state));
+            return;
+        }
+
+        Long oldTeamId = teamId(persister, oldState);
+        Long newTeamId = teamId(persister, state);
+        int oldAge = age(persister, oldState);
+        int newAge = age(persister, state);
+        if (oldAge != newAge || !Objects.equals(oldTeamId, newTeamId)) {
+            stats.remove(oldTeamId, oldAge);
+            stats.add(newTeamId, newAge);
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member) {
+            EntityPersister persister = event.getPersister();
+            pending(event.getSession()).remove(teamId(persister, event.getDeletedState()), age(persister, event.getDeletedState()));
+        } else if (event.getEntity() instanceof Team) {
+            pending(event.getSession()).deleteTeam((Long) event.getId());
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    private PendingStats pending(SessionImplementor session) {
+        return pending.computeIfAbsent(session, key -> {
+            PendingStats stats = new PendingStats(key);
+            key.getEventListenerManager().addListener(stats);
+            return stats;
+        });
+    }
+
+    private static Long teamId(EntityPersister persister, Object[] state) {
+        Object team = state[persister.getEntityMetamodel().getPropertyIndex("team")];
+        return team == null ? null : ((Team) team).getId();    // 프록시여도 id 는 초기화 없이 읽힘
+    }
+
+    private static int age(EntityPersister persister, Object[] state) {
+        return (Integer) state[persister.getEntityMetamodel().getPropertyIndex("age")];
+    }
+
+    /**
+     * 세션 하나에 쌓인 변화량. flush 가 끝날 때마다 반영하고 비움
+     */
+    private class PendingStats extends BaseSessionEventListener {
+
+        private final SessionImplementor session;
+        private final Map<Long, TeamStatsDelta> deltas = new HashMap<>();
+        private final Map<Long, Boolean> rebuilds = new HashMap<>();   // true = 다시 집계, false = 통계 삭제(팀 삭제)
+
+        PendingStats(SessionImplementor session) {
+            this.session = session;
+        }
+
+        void add(Long teamId, int age) {
+            if (teamId != null) {
+                deltas.computeIfAbsent(teamId, id -> new TeamStatsDelta()).add(age);
+            }
+        }
+
+        void remove(Long teamId, int age) {
+            if (teamId != null) {
+                deltas.computeIfAbsent(teamId, id -> new TeamStatsDelta()).remove(age);
+            }
+        }
+
+        void rebuild(Long teamId) {
+            if (teamId != null) {
+                rebuilds.put(teamId, true);
+            }
+        }
+
+        void deleteTeam(Long teamId) {
+            deltas.remove(teamId);
+            rebuilds.put(teamId, false);
+        }
+
+        @Override
+        public void flushEnd(int numberOfEntities, int numberOfCollections) {
+            write();
+        }
+
+        @Override
+        public void partialFlushEnd(int numberOfEntities, int numberOfCollections) {
+            write();    // 쿼리 실행 전 자동 flush
+        }
+
+        @Override
+        public void end() {
+            pending.remove(session);
+        }
+
+        private void write() {
+            if (deltas.isEmpty() && rebuilds.isEmpty()) {
+                return;
+            }
+            Map<Long, TeamStatsDelta> appliedDeltas = new HashMap<>(deltas);
+            Map<Long, Boolean> appliedRebuilds = new HashMap<>(rebuilds);
+            deltas.clear();
+            rebuilds.clear();
+
+            session.doWork(connection -> {
+                appliedDeltas.keySet().removeAll(appliedRebuilds.keySet());
+                TeamStatsWriter.apply(connection, appliedDeltas);
+                for (Map.Entry<Long, Boolean> rebuild : appliedRebuilds.entrySet()) {
+                    if (rebuild.getValue()) {
+                        TeamStatsWriter.rebuild(connection, Collections.singleton(rebuild.getKey()));
+                    } else {
+                        TeamStatsWriter.delete(connection, rebuild.getKey());
+                    }
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.mincheol.querydsl.stats;
+
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * TeamStatsListener 를 SessionFactory 에 등록
+ */
+@Component
+public class TeamStatsListenerRegistrar {
+
+    private final EntityManagerFactory emf;
+
+    public TeamStatsListenerRegistrar(EntityManagerFactory emf) {
+        this.emf = emf;
+    }
+
+    @PostConstruct
+    public void register() {
+        TeamStatsListener listener = new TeamStatsListener();
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, listener);
+        registry.appendListeners(EventType.POST_UPDATE, listener);
+        registry.appendListeners(EventType.POST_DELETE, listener);
+    }
+}
@@ -0,0 +1,125 @@
+package com.mincheol.querydsl.stats;
+
+import com.mincheol.querydsl.dto.QTeamStatsDto;
+import com.mincheol.querydsl.dto.TeamStatsDto;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.Session;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.mincheol.querydsl.entity.QMember.member;
+import static com.mincheol.querydsl.entity.QTeam.team;
+import static com.mincheol.querydsl.entity.QTeamStats.teamStats;
+
+/**
+ * 팀별 회원 나이 통계 조회
+ * member 를 group by 하지 않고 team_stats 를 팀 수만큼만 읽음
+ */
+@Repository
+public class TeamStatsRepository {
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+
+    public TeamStatsRepository(EntityManager em) {
+        this.em = em;
+        this.queryFactory = new JPAQueryFactory(em);
+    }
+
+    /**
+     * 회원이 있는 팀의 count/sum/avg/min/max (팀 이름순)
+     */
+    public List<TeamStatsDto> findAll() {
+        return queryFactory
+                .select(new QTeamStatsDto(team.id, team.name,
+                        teamStats.memberCount, teamStats.ageSum, teamStats.ageMin, teamStats.ageMax))
+                .from(teamStats)
+                .join(team).on(team.id.eq(teamStats.teamId))
+                .where(teamStats.memberCount.gt(0))
+                .orderBy(team.name.asc(), team.id.asc())
+                .fetch();
+    }
+
+    /**
+     * 같은 값을 member group by 로 직접 집계 (비교/검증용)
+     */
+    public List<TeamStatsDto> aggregate() {
+        return queryFactory
+                .select(new QTeamStatsDto(team.id, team.name,
+                        member.count(), member.age.sum().longValue(), member.age.min(), member.age.max()))
+                .from(member)
+                .join(member.team, team)
+                .groupBy(team.id, team.name)
+                .orderBy(team.name.asc(), team.id.asc())
+                .fetch();
+    }
+
+    /**
+     * team_stats 를 실시간 group by 결과와 비교해서 다른 팀을 다시 집계
+     * 리스너를 거치지 않은 변경(벌크/네이티브 쿼리, 수동 SQL)을 주기적으로 맞추는 용도
+     *
+     * @return 틀려서 다시 집계한 팀 id
+     */
+    @Transactional
+    public List<Long> reconcile() {
+        Map<Long, TeamStatsDto> live = aggregate().stream()
+                .collect(Collectors.toMap(TeamStatsDto::getTeamId, Function.identity()));
+        Map<Long, TeamStatsDto> stored = findAllIncludingEmpty().stream()
+                .collect(Collectors.toMap(TeamStatsDto::getTeamId, Function.identity()));
+
+        List<Long> mismatched = new ArrayList<>();
+        for (Map.Entry<Long, TeamStatsDto> entry : live.entrySet()) {
+            if (!sameStats(entry.getValue(), stored.get(entry.getKey()))) {
+                mismatched.add(entry.getKey());
+            }
+        }
+        for (Map.Entry<Long, TeamStatsDto> entry : stored.entrySet()) {
+            // 회원이 없어졌는데 통계에는 남아 있는 팀
+            if (!live.containsKey(entry.getKey()) && entry.getValue().getCount() != 0) {
+                mismatched.add(entry.getKey());
+            }
+        }
+
+        rebuild(mismatched);
+        return mismatched;
+    }
+
+    /**
+     * 지정한 팀의 통계를 member 테이블 기준으로 다시 만듦
+     */
+    @Transactional
+    public void rebuild(Collection<Long> teamIds) {
+        if (teamIds.isEmpty()) {
+            return;
+        }
+        Session session = em.unwrap(Session.class);
+        session.flush();
+        session.doWork(connection -> TeamStatsWriter.rebuild(connection, teamIds));
+    }
+
+    private List<TeamStatsDto> findAllIncludingEmpty() {
+        return queryFactory
+                .select(new QTeamStatsDto(teamStats.teamId, team.name,
+                        teamStats.memberCount, teamStats.ageSum, teamStats.ageMin, teamStats.ageMax))
+                .from(teamStats)
+                .leftJoin(team).on(team.id.eq(teamStats.teamId))
+                .fetch();
+    }
+
+    private static boolean sameStats(TeamStatsDto live, TeamStatsDto stored) {
+        return stored != null
+                && live.getCount() == stored.getCount()
+                && live.getSum() == stored.getSum()
+                && Objects.equals(live.getMin(), stored.getMin())
+                && Objects.equals(live.getMax(), stored.getMax());
+    }
+}
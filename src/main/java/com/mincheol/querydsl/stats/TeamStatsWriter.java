@@ -0,0 +1,86 @@
+package com.mincheol.querydsl.stats;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * team_stats 갱신 SQL. Hibernate 를 거치지 않고 현재 트랜잭션의 커넥션으로 바로 실행함
+ * 값을 읽어서 다시 쓰지 않고 "컬럼 = 컬럼 + 변화량" 으로 갱신하기 때문에 동시에 여러 트랜잭션이 같은 팀을 바꿔도 유실되지 않음
+ */
+final class TeamStatsWriter {
+
+    // 추가만 있으면 count/sum 증감 + min/max 비교로 끝남
+    private static final String ADD =
+            "update team_stats set member_count = member_count + ?, age_sum = age_sum + ?," +
+            " age_min = case when age_min is null or age_min > ? then ? else age_min end," +
+            " age_max = case when age_max is null or age_max < ? then ? else age_max end" +
+            " where team_id = ?";
+
+    // 빠진 회원이 있으면 min/max 는 증감으로 알 수 없으므로 그 팀 회원만 다시 집계 (member.team_id 인덱스)
+    private static final String REMOVE =
+            "update team_stats set member_count = member_count + ?, age_sum = age_sum + ?," +
+            " age_min = (select min(m.age) from member m where m.team_id = ?)," +
+            " age_max = (select max(m.age) from member m where m.team_id = ?)" +
+            " where team_id = ?";
+
+    private static final String DELETE = "delete from team_stats where team_id = ?";
+
+    private static final String INSERT_FROM_MEMBERS =
+            "insert into team_stats (team_id, member_count, age_sum, age_min, age_max)" +
+            " select ?, count(m.member_id), coalesce(sum(m.age), 0), min(m.age), max(m.age)" +
+            " from member m where m.team_id = ?";
+
+    private TeamStatsWriter() {
+    }
+
+    /**
+     * flush 로 member 변경이 DB 에 반영된 뒤에 호출해야 함
+     */
+    static void apply(Connection connection, Map<Long, TeamStatsDelta> deltas) throws SQLException {
+        for (Map.Entry<Long, TeamStatsDelta> entry : deltas.entrySet()) {
+            Long teamId = entry.getKey();
+            TeamStatsDelta delta = entry.getValue();
+            if (delta.isEmpty()) {
+                continue;
+            }
+
+            int updated;
+            if (delta.hasRemovals()) {
+                updated = update(connection, REMOVE, delta.getCount(), delta.getSum(), teamId, teamId, teamId);
+            } else {
+                updated = update(connection, ADD, delta.getCount(), delta.getSum(),
+                        delta.getAddedMin(), delta.getAddedMin(), delta.getAddedMax(), delta.getAddedMax(), teamId);
+            }
+
+            // 처음 보는 팀(또는 지워진 행)은 회원 테이블에서 새로 집계. 방금 반영된 변경도 포함됨
+            if (updated == 0) {
+                update(connection, INSERT_FROM_MEMBERS, teamId, teamId);
+            }
+        }
+    }
+
+    /**
+     * 팀 통계를 회원 테이블 기준으로 다시 만듦 (벌크 쿼리/네이티브 쿼리처럼 리스너를 거치지 않은 변경 반영용)
+     */
+    static void rebuild(Connection connection, Iterable<Long> teamIds) throws SQLException {
+        for (Long teamId : teamIds) {
+            update(connection, DELETE, teamId);
+            update(connection, INSERT_FROM_MEMBERS, teamId, teamId);
+        }
+    }
+
+    static void delete(Connection connection, Long teamId) throws SQLException {
+        update(connection, DELETE, teamId);
+    }
+
+    private static int update(Connection connection, String sql, Object... params) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                statement.setObject(i + 1, params[i]);
+            }
+            return statement.executeUpdate();
+        }
+    }
+}
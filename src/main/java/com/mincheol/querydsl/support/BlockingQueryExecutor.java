@@ -0,0 +1,180 @@
+package com.mincheol.querydsl.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * 블로킹 JPA 조회를 요청 스레드(Tomcat) 밖의 전용 스레드에서 실행 (읽기 전용 트랜잭션)
+ * - 동시에 도는 쿼리는 pool-size 개까지, 기다리는 요청은 queue-capacity 개까지. 넘치면 바로 RejectedExecutionException
+ *   (커넥션 풀 앞에서 요청이 쌓이며 다 같이 느려지지 않게 함. pool-size 는 커넥션 풀 크기보다 작게)
+ * - timeout 이 지나면 결과를 QueryTimeoutException 으로 끝내고, 실행 중인 JDBC statement 를 cancel 함
+ *   (큐에서 기다리던 작업은 실행하지 않고 버림)
+ * - virtual-threads=true 이고 런타임이 지원하면(JDK 21+) 풀 대신 가상 스레드에서 실행. 동시 실행 수 제한은 같음
+ */
+@Slf4j
+@Component
+public class BlockingQueryExecutor {
+
+    private final EntityManager em;
+    private final TransactionTemplate readOnly;
+    private final Duration timeout;
+
+    private final ExecutorService executor;
+    private final Semaphore running;        // 가상 스레드일 때만 사용 (풀은 스레드 수가 곧 동시 실행 수)
+    private final Semaphore inFlight;       // 실행 중 + 대기 중
+    private final ScheduledExecutorService timer;
+
+    public BlockingQueryExecutor(EntityManager em,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${querydsl.web.pool-size:8}") int poolSize,
+                                 @Value("${querydsl.web.queue-capacity:100}") int queueCapacity,
+                                 @Value("${querydsl.web.timeout:3s}") Duration timeout,
+                                 @Value("${querydsl.web.virtual-threads:false}") boolean virtualThreads) {
+        if (poolSize < 1 || queueCapacity < 0 || timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("poolSize and timeout must be positive, queueCapacity must not be negative");
+        }
+        this.em = em;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.timeout = timeout;
+
+        ExecutorService virtual = virtualThreads ? virtualThreadExecutor() : null;
+        if (virtual != null) {
+            this.executor = virtual;
+            this.running = new Semaphore(poolSize, true);
+        } else {
+            this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(Math.max(queueCapacity, 1)), new QueryThreadFactory("query-worker-"));
+            this.running = null;
+        }
+        this.inFlight = new Semaphore(poolSize + queueCapacity);
+        this.timer = Executors.newSingleThreadScheduledExecutor(new QueryThreadFactory("query-timeout-"));
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> query) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        if (!inFlight.tryAcquire()) {
+            result.completeExceptionally(new RejectedExecutionException("too many queries in flight"));
+            return result;
+        }
+
+        AtomicReference<SessionImplementor> session = new AtomicReference<>();
+        try {
+            executor.execute(() -> run(query, result, session));
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            result.completeExceptionally(e);
+            return result;
+        }
+
+        ScheduledFuture<?> expiry = timer.schedule(() -> expire(result, session), timeout.toMillis(), TimeUnit.MILLISECONDS);
+        result.whenComplete((value, e) -> expiry.cancel(false));
+        return result;
+    }
+
+    private <T> void run(Supplier<T> query, CompletableFuture<T> result, AtomicReference<SessionImplementor> session) {
+        try {
+            if (result.isDone()) {
+                return;     // 큐에서 기다리다 이미 타임아웃 됨
+            }
+            if (running != null) {
+                running.acquire();
+            }
+            try {
+                T value = readOnly.execute(status -> {
+                    // unwrap(Session.class) 는 공유 EntityManager 프록시 자신을 돌려주므로 실제 세션을 꺼냄
+                    session.set(em.unwrap(SessionImplementor.class));
+                    try {
+                        return result.isDone() ? null : query.get();
+                    } finally {
+                        session.set(null);
+                    }
+                });
+                result.complete(value);
+            } finally {
+                if (running != null) {
+                    running.release();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(e);
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);    // 타임아웃으로 cancel 된 경우는 이미 완료돼 있어서 무시됨
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    private void expire(CompletableFuture<?> result, AtomicReference<SessionImplementor> session) {
+        if (!result.completeExceptionally(new QueryTimeoutException("query timed out after " + timeout.toMillis() + "ms"))) {
+            return;
+        }
+        SessionImplementor current = session.get();
+        if (current != null) {
+            try {
+                current.cancelQuery();  // 워커 스레드에서 실행 중인 Statement.cancel()
+            } catch (RuntimeException e) {
+                log.debug("query cancel failed", e);    // 그 사이 쿼리가 끝나 세션이 닫힌 경우
+            }
+        }
+    }
+
+    // JDK 21+ 의 Executors.newVirtualThreadPerTaskExecutor(). 소스는 Java 8 이라 리플렉션으로 찾음
+    private static ExecutorService virtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.info("virtual threads are not supported on this runtime, using a bounded thread pool");
+            return null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+        executor.shutdown();
+    }
+
+    private static class QueryThreadFactory implements ThreadFactory {
+
+        private final String prefix;
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        QueryThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, prefix + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
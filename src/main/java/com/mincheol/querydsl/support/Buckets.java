@@ -0,0 +1,117 @@
+package com.mincheol.querydsl.support;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.CaseBuilder;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberExpression;
+import com.querydsl.core.types.dsl.StringExpression;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 숫자 값을 구간(label, from ~ to, 양 끝 포함)으로 나누는 CASE 식
+ * complexCase 의 new CaseBuilder().when(age.between(0, 20)).then("0~20") ... .otherwise("기타") 와 같은 식을 만듦
+ *
+ * Buckets<Integer> ageBuckets = Buckets.of(member.age)
+ *         .range("0~20", 0, 20)
+ *         .range("21~30", 21, 30)
+ *         .otherwise("기타");
+ *
+ * 경계값과 label 은 파라미터가 아니라 JPQL 리터럴로 넣음.
+ * 파라미터로 넣으면 select 절과 group by 절의 CASE 가 서로 다른 파라미터(?1 과 ?4)가 되어서
+ * DB 가 같은 식으로 보지 못하고 group by 에 없는 컬럼이라고 거부함.
+ * 구간은 추가한 순서대로 검사하므로 겹치면 앞의 구간에 들어감
+ */
+public class Buckets<T extends Number & Comparable<?>> {
+
+    private final NumberExpression<T> value;
+    private final List<String> labels = new ArrayList<>();
+    private final List<T> from = new ArrayList<>();
+    private final List<T> to = new ArrayList<>();
+    private String otherwise;
+
+    private Buckets(NumberExpression<T> value) {
+        this.value = value;
+    }
+
+    public static <T extends Number & Comparable<?>> Buckets<T> of(NumberExpression<T> value) {
+        return new Buckets<>(value);
+    }
+
+    public Buckets<T> range(String label, T from, T to) {
+        if (label == null || from == null || to == null) {
+            throw new IllegalArgumentException("label, from and to must not be null");
+        }
+        if (labels.contains(label) || label.equals(otherwise)) {
+            throw new IllegalArgumentException("duplicate bucket label: " + label);
+        }
+        this.labels.add(label);
+        this.from.add(from);
+        this.to.add(to);
+        return this;
+    }
+
+    /**
+     * 어느 구간에도 들어가지 않는 값(null 포함)의 label. 지정하지 않으면 그런 값은 세지 않음
+     */
+    public Buckets<T> otherwise(String label) {
+        if (labels.contains(label)) {
+            throw new IllegalArgumentException("duplicate bucket label: " + label);
+        }
+        this.otherwise = label;
+        return this;
+    }
+
+    /**
+     * 구간 label 순서 (otherwise 가 있으면 마지막)
+     */
+    public List<String> labels() {
+        List<String> all = new ArrayList<>(labels);
+        if (otherwise != null) {
+            all.add(otherwise);
+        }
+        return Collections.unmodifiableList(all);
+    }
+
+    public StringExpression label() {
+        if (labels.isEmpty()) {
+            throw new IllegalStateException("no bucket ranges");
+        }
+        CaseBuilder.Cases<String, StringExpression> cases = null;
+        for (int i = 0; i < labels.size(); i++) {
+            if (cases == null) {
+                cases = new CaseBuilder().when(value.between(literal(from.get(i)), literal(to.get(i)))).then(literal(labels.get(i)));
+            } else {
+                cases = cases.when(value.between(literal(from.get(i)), literal(to.get(i)))).then(literal(labels.get(i)));
+            }
+        }
+        return otherwise != null ? cases.otherwise(literal(otherwise)) : cases.otherwise(Expressions.nullExpression(String.class));
+    }
+
+    /**
+     * 구간 중 하나에 들어가는 값만 (otherwise 가 없을 때 나머지를 DB 에서 미리 거름)
+     */
+    public BooleanExpression inAnyRange() {
+        BooleanExpression any = null;
+        for (int i = 0; i < labels.size(); i++) {
+            BooleanExpression range = value.between(literal(from.get(i)), literal(to.get(i)));
+            any = any == null ? range : any.or(range);
+        }
+        return any;
+    }
+
+    public boolean hasOtherwise() {
+        return otherwise != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private NumberExpression<T> literal(T number) {
+        return Expressions.numberTemplate((Class<T>) number.getClass(), number.toString());
+    }
+
+    private static StringExpression literal(String label) {
+        return Expressions.stringTemplate("'" + label.replace("'", "''") + "'");
+    }
+}
@@ -0,0 +1,307 @@
+package com.mincheol.querydsl.support;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.FactoryExpressionBase;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Visitor;
+import org.springframework.util.ClassUtils;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Projections.bean / fields / constructor 대체
+ * Projections.* 는 row 마다 리플렉션(Method.invoke, Field.set, Constructor.newInstance)으로 DTO 를 만들지만,
+ * 여기서는 DTO 클래스 + 별칭 조합마다 한 번만 setter/생성자를 찾아서
+ * LambdaMetafactory 로 만든 람다(또는 MethodHandle)를 캐시해 두고 재사용함.
+ *
+ * 사용법은 Projections 와 같음
+ * queryFactory.select(CompiledProjections.bean(MemberDto.class, member.username, member.age))
+ */
+public final class CompiledProjections {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final ConcurrentMap<List<Object>, Instantiator> CACHE = new ConcurrentHashMap<>();
+
+    private CompiledProjections() {
+    }
+
+    /**
+     * 기본 생성자 + setter. 별칭이 필요하면 member.username.as("name")
+     */
+    public static <T> FactoryExpression<T> bean(Class<T> type, Expression<?>... exprs) {
+        List<String> names = propertyNames(exprs);
+        Instantiator instantiator = CACHE.computeIfAbsent(key("bean", type, names), k -> compileBean(type, names));
+        return new CompiledExpression<>(type, exprs, instantiator);
+    }
+
+    /**
+     * 기본 생성자 + 필드 직접 주입 (getter, setter 없어도 됨)
+     */
+    public static <T> FactoryExpression<T> fields(Class<T> type, Expression<?>... exprs) {
+        List<String> names = propertyNames(exprs);
+        Instantiator instantiator = CACHE.computeIfAbsent(key("fields", type, names), k -> compileFields(type, names));
+        return new CompiledExpression<>(type, exprs, instantiator);
+    }
+
+    /**
+     * 인자 타입이 맞는 생성자
+     */
+    public static <T> FactoryExpression<T> constructor(Class<T> type, Expression<?>... exprs) {
+        List<Class<?>> argTypes = new ArrayList<>();
+        for (Expression<?> expr : exprs) {
+            argTypes.add(expr.getType());
+        }
+        Instantiator instantiator = CACHE.computeIfAbsent(key("constructor", type, argTypes), k -> compileConstructor(type, argTypes));
+        return new CompiledExpression<>(type, exprs, instantiator);
+    }
+
+    private static List<Object> key(String kind, Class<?> type, List<?> members) {
+        List<Object> key = new ArrayList<>(members.size() + 2);
+        key.add(kind);
+        key.add(type);
+        key.addAll(members);
+        return key;
+    }
+
+    private static List<String> propertyNames(Expression<?>[] exprs) {
+        List<String> names = new ArrayList<>(exprs.length);
+        for (Expression<?> expr : exprs) {
+            if (expr instanceof Path) {
+                names.add(((Path<?>) expr).getMetadata().getName());
+            } else if (expr instanceof Operation && ((Operation<?>) expr).getOperator() == Ops.ALIAS) {
+                names.add(((Path<?>) ((Operation<?>) expr).getArg(1)).getMetadata().getName());
+            } else {
+                throw new IllegalArgumentException("Unsupported expression " + expr + ", use as(alias)");
+            }
+        }
+        return Collections.unmodifiableList(names);
+    }
+
+    private static Instantiator compileBean(Class<?> type, List<String> names) {
+        Supplier<Object> factory = defaultConstructor(type);
+        List<BiConsumer<Object, Object>> setters = new ArrayList<>(names.size());
+        for (String name : names) {
+            setters.add(setter(type, name));
+        }
+        return new PropertyInstantiator(factory, setters);
+    }
+
+    private static Instantiator compileFields(Class<?> type, List<String> names) {
+        Supplier<Object> factory = defaultConstructor(type);
+        List<BiConsumer<Object, Object>> setters = new ArrayList<>(names.size());
+        for (String name : names) {
+            setters.add(fieldSetter(type, name));
+        }
+        return new PropertyInstantiator(factory, setters);
+    }
+
+    private static Instantiator compileConstructor(Class<?> type, List<Class<?>> argTypes) {
+        for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+            if (accepts(constructor.getParameterTypes(), argTypes)) {
+                try {
+                    constructor.setAccessible(true);
+                    MethodHandle handle = LOOKUP.unreflectConstructor(constructor)
+                            .asSpreader(Object[].class, argTypes.size())
+                            .asType(MethodType.methodType(Object.class, Object[].class));
+                    return new ConstructorInstantiator(handle);
+                } catch (IllegalAccessException e) {
+                    throw new IllegalArgumentException("Cannot access constructor " + constructor, e);
+                }
+            }
+        }
+        throw new IllegalArgumentException("No constructor of " + type.getName() + " accepts " + argTypes);
+    }
+
+    private static boolean accepts(Class<?>[] parameterTypes, List<Class<?>> argTypes) {
+        if (parameterTypes.length != argTypes.size()) {
+            return false;
+        }
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (!ClassUtils.isAssignable(parameterTypes[i], argTypes.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<Object> defaultConstructor(Class<?> type) {
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor();
+            if (!Modifier.isPublic(constructor.getModifiers())) {
+                constructor.setAccessible(true);
+                MethodHandle handle = LOOKUP.unreflectConstructor(constructor).asType(MethodType.methodType(Object.class));
+                return () -> invoke(handle);
+            }
+            MethodHandle handle = LOOKUP.unreflectConstructor(constructor);
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP, "get",
+                    MethodType.methodType(Supplier.class),
+                    MethodType.methodType(Object.class),
+                    handle,
+                    MethodType.methodType(type));
+            return (Supplier<Object>) site.getTarget().invokeExact();
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(type.getName() + " needs a default constructor", e);
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot compile default constructor of " + type.getName(), e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> setter(Class<?> type, String name) {
+        Method method = findSetter(type, name);
+        try {
+            MethodHandle handle = LOOKUP.unreflect(method);
+            Class<?> valueType = ClassUtils.resolvePrimitiveIfNecessary(method.getParameterTypes()[0]);
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP, "accept",
+                    MethodType.methodType(BiConsumer.class),
+                    MethodType.methodType(void.class, Object.class, Object.class),
+                    handle,
+                    MethodType.methodType(void.class, type, valueType));
+            return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot compile setter " + method, e);
+        }
+    }
+
+    private static Method findSetter(Class<?> type, String name) {
+        String setterName = "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        for (Method method : type.getMethods()) {
+            if (method.getName().equals(setterName) && method.getParameterCount() == 1
+                    && !Modifier.isStatic(method.getModifiers())) {
+                return method;
+            }
+        }
+        throw new IllegalArgumentException("No setter for property '" + name + "' in " + type.getName());
+    }
+
+    private static BiConsumer<Object, Object> fieldSetter(Class<?> type, String name) {
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            try {
+                Field field = c.getDeclaredField(name);
+                field.setAccessible(true);
+                MethodHandle handle = LOOKUP.unreflectSetter(field)
+                        .asType(MethodType.methodType(void.class, Object.class, Object.class));
+                return (target, value) -> {
+                    try {
+                        handle.invokeExact(target, value);
+                    } catch (RuntimeException | Error e) {
+                        throw e;
+                    } catch (Throwable e) {
+                        throw new IllegalStateException(e);
+                    }
+                };
+            } catch (NoSuchFieldException e) {
+                // 상위 클래스에서 다시 찾음
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException("Cannot access field '" + name + "' in " + type.getName(), e);
+            }
+        }
+        throw new IllegalArgumentException("No field '" + name + "' in " + type.getName());
+    }
+
+    private static Object invoke(MethodHandle handle) {
+        try {
+            return handle.invokeExact();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    interface Instantiator {
+        Object create(Object[] args);
+    }
+
+    private static class PropertyInstantiator implements Instantiator {
+
+        private final Supplier<Object> factory;
+        private final BiConsumer<Object, Object>[] setters;
+
+        @SuppressWarnings("unchecked")
+        PropertyInstantiator(Supplier<Object> factory, List<BiConsumer<Object, Object>> setters) {
+            this.factory = factory;
+            this.setters = setters.toArray(new BiConsumer[0]);
+        }
+
+        @Override
+        public Object create(Object[] args) {
+            Object bean = factory.get();
+            for (int i = 0; i < setters.length; i++) {
+                if (args[i] != null) {  // QBean 과 같이 null 은 건너뜀 (primitive 필드 보호)
+                    setters[i].accept(bean, args[i]);
+                }
+            }
+            return bean;
+        }
+    }
+
+    private static class ConstructorInstantiator implements Instantiator {
+
+        private final MethodHandle handle;
+
+        ConstructorInstantiator(MethodHandle handle) {
+            this.handle = handle;
+        }
+
+        @Override
+        public Object create(Object[] args) {
+            try {
+                return handle.invokeExact(args);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static class CompiledExpression<T> extends FactoryExpressionBase<T> {
+
+        private final List<Expression<?>> args;
+        private final Instantiator instantiator;
+
+        CompiledExpression(Class<? extends T> type, Expression<?>[] args, Instantiator instantiator) {
+            super(type);
+            this.args = Collections.unmodifiableList(Arrays.asList(args.clone()));
+            this.instantiator = instantiator;
+        }
+
+        @Override
+        public List<Expression<?>> getArgs() {
+            return args;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T newInstance(Object... a) {
+            return (T) instantiator.create(a);
+        }
+
+        @Override
+        public <R, C> R accept(Visitor<R, C> v, C context) {
+            return v.visit(this, context);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.mincheol.querydsl.support;
+
+import com.querydsl.jpa.impl.JPAQuery;
+
+import javax.persistence.EntityManager;
+
+/**
+ * 쿼리 단위로 연관관계 로딩 방식을 지정하는 힌트
+ * 엔티티에 선언된 @NamedEntityGraph 를 fetch graph 로 넘기면 Hibernate 가 fetch join 으로 바꿔서 한 번에 조회함
+ *
+ * 컬렉션(Team.members) 그래프는 offset/limit 과 같이 쓰면 메모리 페이징이 되므로,
+ * 페이징이 있는 컬렉션 조회는 전역 default_batch_fetch_size / @BatchSize 에 맡길 것.
+ */
+public final class EntityGraphs {
+
+    public static final String FETCH_GRAPH = "javax.persistence.fetchgraph";
+    public static final String LOAD_GRAPH = "javax.persistence.loadgraph";
+
+    public static final String MEMBER_TEAM = "Member.team";
+    public static final String TEAM_MEMBERS = "Team.members";
+
+    private EntityGraphs() {
+    }
+
+    /**
+     * 그래프에 있는 속성만 즉시 로딩, 나머지는 LAZY 로 취급
+     */
+    public static <T> JPAQuery<T> fetchGraph(JPAQuery<T> query, EntityManager em, String graphName) {
+        return query.setHint(FETCH_GRAPH, em.getEntityGraph(graphName));
+    }
+
+    /**
+     * 그래프에 있는 속성은 즉시 로딩, 나머지는 매핑에 선언된 fetch 전략을 따름
+     */
+    public static <T> JPAQuery<T> loadGraph(JPAQuery<T> query, EntityManager em, String graphName) {
+        return query.setHint(LOAD_GRAPH, em.getEntityGraph(graphName));
+    }
+}
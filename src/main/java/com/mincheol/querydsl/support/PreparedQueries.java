@@ -0,0 +1,34 @@
+package com.mincheol.querydsl.support;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * 이름별 PreparedQuery 캐시. 쿼리 모양은 이름당 처음 한 번만 만들고 직렬화함
+ *
+ * preparedQueries.get("member.byUsername", qf -> qf.selectFrom(member).where(member.username.eq(USERNAME)))
+ *         .with(USERNAME, "member1")
+ *         .fetchOne(em);
+ */
+@Component
+public class PreparedQueries {
+
+    private final EntityManager em;
+    private final ConcurrentMap<String, PreparedQuery<?>> cache = new ConcurrentHashMap<>();
+
+    public PreparedQueries(EntityManager em) {
+        this.em = em;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> PreparedQuery<T> get(String name, Function<JPAQueryFactory, JPAQuery<T>> shape) {
+        return (PreparedQuery<T>) cache.computeIfAbsent(name,
+                key -> PreparedQuery.of(shape.apply(new JPAQueryFactory(em)), em));
+    }
+}
@@ -0,0 +1,132 @@
+package com.mincheol.querydsl.support;
+
+import com.querydsl.core.NonUniqueResultException;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.QueryModifiers;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAProvider;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAUtil;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 한 번 직렬화한 JPQL 을 재사용하는 쿼리
+ * 매번 JPAQueryFactory 로 쿼리를 만들면 표현식 트리 생성 + JPQL 직렬화를 호출마다 반복하는데,
+ * 쿼리 모양이 같다면 파라미터 값만 바뀌므로 값이 바뀌는 자리를 Param 으로 두고 한 번만 직렬화함.
+ * JPQL 문자열이 매번 같으니 Hibernate 의 쿼리 플랜 캐시(QueryPlanCache)도 항상 적중함.
+ *
+ * Param<String> username = new Param<>(String.class, "username");
+ * PreparedQuery<Member> byName = PreparedQuery.of(queryFactory.selectFrom(member).where(member.username.eq(username)), em);
+ * Member found = byName.with(username, "member1").fetchOne(em);
+ *
+ * 쿼리 모양 외의 값(상수)은 준비 시점의 값으로 고정됨. 만들어진 인스턴스는 불변이라 여러 스레드에서 공유 가능.
+ */
+public class PreparedQuery<T> {
+
+    private final String jpql;
+    private final Map<Object, String> constants;
+    private final FactoryExpression<T> factory;
+    private final Integer limit;
+    private final Integer offset;
+
+    @SuppressWarnings("unchecked")
+    private PreparedQuery(String jpql, Map<Object, String> constants, Expression<?> projection, QueryModifiers modifiers) {
+        this.jpql = jpql;
+        this.constants = Collections.unmodifiableMap(new HashMap<>(constants));
+        this.factory = projection instanceof FactoryExpression ? (FactoryExpression<T>) projection : null;
+        this.limit = modifiers.getLimitAsInteger();
+        this.offset = modifiers.getOffsetAsInteger();
+    }
+
+    public static <T> PreparedQuery<T> of(JPAQuery<T> shape, EntityManager em) {
+        QueryMetadata metadata = shape.getMetadata();
+        JPQLSerializer serializer = new JPQLSerializer(JPAProvider.getTemplates(em), em);
+        serializer.serialize(metadata, false, null);
+        return new PreparedQuery<>(serializer.toString(), serializer.getConstantToAllLabels(),
+                metadata.getProjection(), metadata.getModifiers());
+    }
+
+    public String getJpql() {
+        return jpql;
+    }
+
+    public <P> Binding<T> with(ParamExpression<P> param, P value) {
+        return new Binding<>(this).with(param, value);
+    }
+
+    /**
+     * Param 이 없는 쿼리 실행
+     */
+    public List<T> fetch(EntityManager em) {
+        return new Binding<>(this).fetch(em);
+    }
+
+    List<T> execute(EntityManager em, Map<ParamExpression<?>, Object> params, Integer maxResults) {
+        Query query = em.createQuery(jpql);
+        JPAUtil.setConstants(query, constants, params);
+        if (offset != null) {
+            query.setFirstResult(offset);
+        }
+        if (maxResults != null) {
+            query.setMaxResults(maxResults);
+        }
+        return transform(query.getResultList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<T> transform(List<?> rows) {
+        if (factory == null) {
+            return (List<T>) rows;
+        }
+        List<T> result = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            result.add(factory.newInstance(row instanceof Object[] ? (Object[]) row : new Object[]{row}));
+        }
+        return result;
+    }
+
+    /**
+     * 파라미터 값 묶음. 호출마다 새로 만들어 씀
+     */
+    public static class Binding<T> {
+
+        private final PreparedQuery<T> prepared;
+        private final Map<ParamExpression<?>, Object> params = new HashMap<>();
+
+        Binding(PreparedQuery<T> prepared) {
+            this.prepared = prepared;
+        }
+
+        public <P> Binding<T> with(ParamExpression<P> param, P value) {
+            params.put(param, value);
+            return this;
+        }
+
+        public List<T> fetch(EntityManager em) {
+            return prepared.execute(em, params, prepared.limit);
+        }
+
+        public T fetchOne(EntityManager em) {
+            // 유일성 검사를 위해 최대 2건만 읽음
+            Integer maxResults = prepared.limit == null ? Integer.valueOf(2) : Integer.valueOf(Math.min(prepared.limit, 2));
+            List<T> result = prepared.execute(em, params, maxResults);
+            if (result.isEmpty()) {
+                return null;
+            }
+            if (result.size() > 1) {
+                throw new NonUniqueResultException();
+            }
+            return result.get(0);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.mincheol.querydsl.support;
+
+import com.mysema.commons.lang.CloseableIterator;
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.jpa.impl.JPAQuery;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * fetch() 처럼 결과 전체를 List 로 올리지 않고 forward-only 커서로 한 건씩 읽는 조회
+ * - JDBC fetch size 만큼씩 DB 에서 가져옴
+ * - 엔티티를 조회하는 경우 N 건마다 영속성 컨텍스트를 비워서 메모리가 row 수에 비례해 늘지 않음
+ * - 한 번 훑고 마는 대량 조회가 2차 캐시를 밀어내지 않도록 캐시를 읽지도 쓰지도 않음 (CacheMode.IGNORE)
+ *
+ * 커서는 트랜잭션(커넥션)이 살아 있는 동안만 유효하므로 @Transactional(readOnly = true) 안에서 사용하고,
+ * 반환된 Stream 은 반드시 try-with-resources 로 닫아야 함.
+ */
+@Component
+public class StreamingQueryExecutor {
+
+    private static final String H2 = "H2";
+
+    private final EntityManager em;
+    private final int fetchSize;
+    private final int clearInterval;
+
+    public StreamingQueryExecutor(EntityManager em,
+                                  @Value("${querydsl.streaming.fetch-size:500}") int fetchSize,
+                                  @Value("${querydsl.streaming.clear-interval:1000}") int clearInterval) {
+        if (fetchSize < 1 || clearInterval < 1) {
+            throw new IllegalArgumentException("fetchSize and clearInterval must be positive");
+        }
+        this.em = em;
+        this.fetchSize = fetchSize;
+        this.clearInterval = clearInterval;
+    }
+
+    public <T> Stream<T> stream(JPAQuery<T> query) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("streaming query requires an active transaction");
+        }
+
+        lazyQueryExecution(true);
+
+        // JPAQuery.iterate() 는 Hibernate 에서 ScrollMode.FORWARD_ONLY 로 scroll 함
+        CloseableIterator<T> iterator = query
+                .setHint(QueryHints.FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.READ_ONLY, true)
+                .setHint(QueryHints.CACHE_MODE, CacheMode.IGNORE)
+                .iterate();
+
+        Iterator<T> rows = selectsEntity(query) ? new ClearingIterator<>(iterator) : iterator;
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(rows, Spliterator.ORDERED), false)
+                .onClose(() -> {
+                    iterator.close();
+                    lazyQueryExecution(false);
+                });
+    }
+
+    // H2 는 기본적으로 결과 전체를 만들어 둔 뒤에 첫 row 를 돌려줌 (fetch size 무시)
+    // 커서가 열려 있는 동안만 lazy 실행으로 바꿔서 row 를 읽는 만큼만 실행되게 함 (커넥션 단위 설정이라 닫을 때 되돌림)
+    private void lazyQueryExecution(boolean enabled) {
+        em.unwrap(Session.class).doWork(connection -> {
+            if (H2.equals(connection.getMetaData().getDatabaseProductName())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("set lazy_query_execution " + (enabled ? 1 : 0));
+                }
+            }
+        });
+    }
+
+    // DTO, Tuple(스칼라 값만 있을 때) 는 영속성 컨텍스트에 올라가지 않으므로 비울 필요 없음
+    private static boolean selectsEntity(JPAQuery<?> query) {
+        Expression<?> projection = query.getMetadata().getProjection();
+        if (projection instanceof FactoryExpression) {
+            for (Expression<?> arg : ((FactoryExpression<?>) projection).getArgs()) {
+                if (arg instanceof EntityPath) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return projection == null || projection instanceof EntityPath;
+    }
+
+    /**
+     * clearInterval 건을 넘겨줄 때마다, 다음 row 를 읽기 직전에 영속성 컨텍스트를 비움
+     * (이미 넘겨준 엔티티는 준영속 상태가 됨)
+     */
+    private class ClearingIterator<T> implements Iterator<T> {
+
+        private final Iterator<T> delegate;
+        private long count;
+
+        ClearingIterator(Iterator<T> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return delegate.hasNext();
+        }
+
+        @Override
+        public T next() {
+            if (count > 0 && count % clearInterval == 0) {
+                em.clear();
+            }
+            count++;
+            return delegate.next();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.mincheol.querydsl.support;
+
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.support.ConstantHidingExpression;
+import com.querydsl.core.support.ReplaceVisitor;
+import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.ConstantImpl;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.FactoryExpressionUtils;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Operator;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.SubQueryExpression;
+import com.querydsl.core.types.SubQueryExpressionImpl;
+import com.querydsl.core.types.ValidatingVisitor;
+import com.querydsl.jpa.impl.JPAQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 바깥 쿼리를 참조하지 않는(uncorrelated) 서브쿼리를 미리 한 번 실행해서 상수로 바꾼 쿼리를 만듦
+ * - 비교 연산(=, <>, <, <=, >, >=, between)과 select 절의 스칼라 서브쿼리 -> 결과 값 하나로 바인딩
+ *   ex) where m.age >= (select avg(ms.age) from Member ms) -> where m.age >= ?1
+ *       select m.username, (select avg(ms.age) ...) from Member m -> avg 를 row 마다 계산하지 않음
+ * - in (서브쿼리) -> 결과가 in-list-threshold 개 이하면 in (?1, ?2, ...) 로 바꿈 (한 번만 실행하는 semi join)
+ *   not in 은 결과에 null 이 있으면 의미가 달라지므로 그대로 둠
+ * - 바깥 쿼리를 참조하는(correlated) 서브쿼리, exists, any/all, 결과가 null 인 서브쿼리는 그대로 둠
+ *   (안쪽에 있는 uncorrelated 서브쿼리는 바꿈)
+ *
+ * 서브쿼리는 optimize() 를 호출할 때 실행되므로, 같은 트랜잭션 안에서 바로 실행할 쿼리에만 사용.
+ * 반환되는 쿼리는 새 JPAQuery 라서 원래 쿼리에 준 hint, lock mode 는 다시 지정해야 함
+ */
+@Component
+public class SubqueryOptimizer {
+
+    private static final Set<Ops> SCALAR_OPERATORS = EnumSet.of(Ops.EQ, Ops.NE, Ops.LT, Ops.LOE, Ops.GT, Ops.GOE, Ops.BETWEEN);
+
+    private final EntityManager em;
+    private final int inListThreshold;
+
+    public SubqueryOptimizer(EntityManager em,
+                             @Value("${querydsl.subquery.in-list-threshold:1000}") int inListThreshold) {
+        this.em = em;
+        this.inListThreshold = inListThreshold;
+    }
+
+    public <T> JPAQuery<T> optimize(JPAQuery<T> query) {
+        QueryMetadata metadata = query.getMetadata();
+        // ReplaceVisitor 는 서브쿼리 단위로 메타데이터(join, where, having, select ...)를 새로 만들어 주므로 전체 쿼리를 서브쿼리로 감싸서 돌림
+        QueryMetadata rewritten = ((SubQueryExpression<?>) new SubQueryExpressionImpl<>(Object.class, metadata)
+                .accept(new Rewriter(), null)).getMetadata();
+
+        // Hibernate 는 select 절의 파라미터를 받지 않으므로 상수는 SQL 에서 빼고 결과를 만들 때 다시 넣음
+        Expression<?> projection = rewritten.getProjection();
+        if (projection instanceof FactoryExpression && hasConstant((FactoryExpression<?>) projection)) {
+            rewritten.setProjection(new ConstantHidingExpression<>((FactoryExpression<?>) projection));
+        }
+        return new JPAQuery<>(em, rewritten);
+    }
+
+    private static boolean hasConstant(FactoryExpression<?> projection) {
+        for (Expression<?> arg : projection.getArgs()) {
+            if (arg instanceof Constant) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private class Rewriter extends ReplaceVisitor<Void> {
+
+        @Override
+        public Expression<?> visit(Operation<?> expr, Void context) {
+            Operator operator = expr.getOperator();
+            if ((operator == Ops.IN || operator == Ops.NOT_IN) && expr.getArg(1) instanceof SubQueryExpression) {
+                Expression<?> inList = inList(expr);
+                if (inList != null) {
+                    return inList;
+                }
+            } else if (SCALAR_OPERATORS.contains(operator)) {
+                List<Expression<?>> args = scalarArgs(expr.getArgs());
+                if (args != null) {
+                    Expression<?>[] array = args.toArray(new Expression<?>[0]);
+                    expr = expr instanceof Predicate
+                            ? ExpressionUtils.predicate(operator, array)
+                            : ExpressionUtils.operation(expr.getType(), operator, array);
+                }
+            }
+            return super.visit(expr, context);
+        }
+
+        @Override
+        public Expression<?> visit(FactoryExpression<?> expr, Void context) {
+            List<Expression<?>> args = scalarArgs(expr.getArgs());
+            if (args != null) {
+                expr = FactoryExpressionUtils.wrap(expr, args);     // newInstance 는 원래 projection 그대로 (Tuple.get(서브쿼리) 도 동작)
+            }
+            return super.visit(expr, context);
+        }
+
+        // 바꾼 인자가 하나도 없으면 null
+        private List<Expression<?>> scalarArgs(List<Expression<?>> args) {
+            List<Expression<?>> replaced = new ArrayList<>(args.size());
+            boolean changed = false;
+            for (Expression<?> arg : args) {
+                Expression<?> constant = arg instanceof SubQueryExpression ? scalar((SubQueryExpression<?>) arg) : null;
+                replaced.add(constant != null ? constant : arg);
+                changed |= constant != null;
+            }
+            return changed ? replaced : null;
+        }
+
+        private Expression<?> scalar(SubQueryExpression<?> subQuery) {
+            if (!isUncorrelated(subQuery)) {
+                return null;
+            }
+            Object value = new JPAQuery<>(em, subQuery.getMetadata()).fetchOne();
+            return value != null ? ConstantImpl.create(value) : null;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private Expression<?> inList(Operation<?> expr) {
+            SubQueryExpression<?> subQuery = (SubQueryExpression<?>) expr.getArg(1);
+            QueryMetadata metadata = subQuery.getMetadata();
+            if (!isUncorrelated(subQuery) || metadata.getModifiers().isRestricting()) {
+                return null;
+            }
+
+            QueryMetadata distinct = metadata.clone();
+            distinct.setDistinct(true);
+            distinct.setLimit((long) inListThreshold + 1);
+            List<?> values = new JPAQuery<>(em, distinct).fetch();
+            if (values.size() > inListThreshold) {
+                return null;    // 큰 결과는 DB 의 semi join 이 나음
+            }
+
+            Expression left = expr.getArg(0);
+            if (expr.getOperator() == Ops.NOT_IN) {
+                return values.contains(null) ? null : ExpressionUtils.notIn(left, (Collection) values);
+            }
+            List<?> nonNull = new ArrayList<>(values);
+            nonNull.removeIf(Objects::isNull);  // null 은 in 으로 매칭되지 않음
+            return ExpressionUtils.in(left, (Collection) nonNull);
+        }
+    }
+
+    // 서브쿼리 안의 모든 경로가 서브쿼리 자신의 from/join 에서 나오면 uncorrelated
+    private static boolean isUncorrelated(SubQueryExpression<?> subQuery) {
+        try {
+            subQuery.accept(ValidatingVisitor.DEFAULT, new HashSet<>());
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.mincheol.querydsl.controller;
+
+import com.mincheol.querydsl.entity.Member;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// 응답은 MVC async 스레드(별도 트랜잭션)에서 쓰므로 테스트 데이터를 커밋하고 끝나면 지움
+@SpringBootTest
+@AutoConfigureMockMvc
+class MemberExportControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    public void before() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            em.persist(new Member("member1", 10));
+            em.persist(new Member("member2", 20));
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                em.createQuery("delete from Member").executeUpdate());
+    }
+
+    @Test
+    public void exportNdjson() throws Exception {
+        MvcResult result = mockMvc.perform(get("/v1/members/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string("{\"username\":\"member1\",\"age\":10}\n{\"username\":\"member2\",\"age\":20}\n"));
+    }
+
+    @Test
+    public void exportArray() throws Exception {
+        MvcResult result = mockMvc.perform(get("/v1/members/export").param("format", "array"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[1].username").value("member2"));
+    }
+
+    @Test
+    public void unknownFormat() throws Exception {
+        mockMvc.perform(get("/v1/members/export").param("format", "csv"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,94 @@
+package com.mincheol.querydsl.controller;
+
+import com.mincheol.querydsl.entity.Member;
+import com.mincheol.querydsl.entity.Team;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// /v2 는 다른 스레드(트랜잭션)에서 조회하므로 테스트 데이터를 커밋하고 끝나면 지움
+@SpringBootTest
+@AutoConfigureMockMvc
+class MemberSearchControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    public void before() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+
+            em.persist(new Member("member1", 10, teamA));
+            em.persist(new Member("member2", 20, teamA));
+            em.persist(new Member("member3", 30, teamB));
+            em.persist(new Member("member4", 40, teamB));
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    public void searchMembersV1() throws Exception {
+        mockMvc.perform(get("/v1/members").param("teamName", "teamB").param("ageGoe", "35"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].username").value("member4"));
+    }
+
+    @Test
+    public void searchMembersV2() throws Exception {
+        MvcResult result = mockMvc.perform(get("/v2/members").param("usernamePrefix", "member").param("limit", "2"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].username").value("member4"))
+                .andExpect(jsonPath("$[1].username").value("member3"));
+    }
+
+    @Test
+    public void teamStatsV2() throws Exception {
+        MvcResult result = mockMvc.perform(get("/v2/teams/stats"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].count").value(2));
+    }
+}
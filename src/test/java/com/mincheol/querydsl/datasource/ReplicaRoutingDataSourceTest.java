@@ -0,0 +1,163 @@
+package com.mincheol.querydsl.datasource;
+
+import com.mincheol.querydsl.entity.Member;
+import com.mincheol.querydsl.entity.Team;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static com.mincheol.querydsl.entity.QMember.member;
+import static com.mincheol.querydsl.entity.QTeam.team;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 같은 H2 메모리 DB 를 바라보는 풀 두 개를 replica 대신 쓰고, 세 번째 replica 는 없는 DB 라 연결이 안 됨
+ * (IFEXISTS=TRUE : DB 가 없으면 만들지 않고 실패)
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1",
+        "querydsl.routing.enabled=true",
+        "querydsl.routing.replicas[0].url=jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1",
+        "querydsl.routing.replicas[1].url=jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1",
+        "querydsl.routing.replicas[2].url=jdbc:h2:mem:missing;IFEXISTS=TRUE",
+        "querydsl.routing.health-check-interval=1h"
+})
+class ReplicaRoutingDataSourceTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    ReplicaRoutingDataSource routingDataSource;
+
+    @Autowired
+    MeterRegistry registry;
+
+    JPAQueryFactory queryFactory;
+
+    @BeforeEach
+    public void before() {
+        queryFactory = new JPAQueryFactory(em);
+        routingDataSource.checkReplicas();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            em.persist(teamA);
+            em.persist(new Member("member1", 10, teamA));
+            em.persist(new Member("member2", 20, teamA));
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    public void readOnlyTransactionsGoToReplicas() {
+        double primaryBefore = statements("primary");
+        double replica1Before = statements("replica-1");
+        double replica2Before = statements("replica-2");
+
+        for (int i = 0; i < 4; i++) {
+            List<Double> averages = readOnly().execute(status -> queryFactory
+                    .select(member.age.avg())
+                    .from(member)
+                    .join(member.team, team)
+                    .groupBy(team.name)
+                    .fetch());
+            assertThat(averages).containsExactly(15.0);
+        }
+
+        assertThat(statements("primary")).isEqualTo(primaryBefore);
+        assertThat(statements("replica-1") - replica1Before).isPositive();
+        assertThat(statements("replica-2") - replica2Before).isPositive();
+    }
+
+    @Test
+    public void writesGoToPrimary() {
+        double primaryBefore = statements("primary");
+        double replicaBefore = statements("replica-1") + statements("replica-2");
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> queryFactory
+                .update(member)
+                .set(member.age, member.age.add(1))
+                .execute());
+
+        assertThat(statements("primary")).isGreaterThan(primaryBefore);
+        assertThat(statements("replica-1") + statements("replica-2")).isEqualTo(replicaBefore);
+    }
+
+    @Test
+    public void unreachableReplicaIsEjected() {
+        // 상태 검사에서 이미 제외됨
+        assertThat(healthy("replica-3")).isZero();
+        assertThat(healthy("replica-1")).isEqualTo(1);
+
+        // 검사 전에 죽은 경우: 커넥션 획득에 실패하면 그 자리에서 제외하고 다음 replica 로 넘어감
+        replica("replica-3").reinstate();
+        for (int i = 0; i < 6; i++) {
+            List<Member> members = readOnly().execute(status -> queryFactory.selectFrom(member).fetch());
+            assertThat(members).hasSize(2);
+        }
+        assertThat(healthy("replica-3")).isZero();
+        assertThat(connections("replica-3")).isZero();
+    }
+
+    @Test
+    public void fallbackToPrimaryWhenNoReplicaIsHealthy() {
+        routingDataSource.getReplicas().forEach(replica -> replica.eject(new IllegalStateException("test")));
+        double fallbackBefore = registry.find("datasource.routing.fallback").counter().count();
+        double primaryBefore = statements("primary");
+
+        List<Member> members = readOnly().execute(status -> queryFactory.selectFrom(member).fetch());
+
+        assertThat(members).hasSize(2);
+        assertThat(registry.find("datasource.routing.fallback").counter().count()).isEqualTo(fallbackBefore + 1);
+        assertThat(statements("primary")).isGreaterThan(primaryBefore);
+
+        // 상태 검사에서 살아 있는 replica 는 다시 라우팅 대상이 됨
+        routingDataSource.checkReplicas();
+        assertThat(healthy("replica-1")).isEqualTo(1);
+        assertThat(healthy("replica-3")).isZero();
+    }
+
+    private TransactionTemplate readOnly() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+
+    private RoutingTarget replica(String name) {
+        return routingDataSource.getReplicas().stream()
+                .filter(replica -> replica.getName().equals(name))
+                .findFirst()
+                .orElseThrow(IllegalArgumentException::new);
+    }
+
+    private double statements(String target) {
+        return registry.find("datasource.routing.statements").tag("target", target).counter().count();
+    }
+
+    private double connections(String target) {
+        return registry.find("datasource.routing.connections").tag("target", target).counter().count();
+    }
+
+    private double healthy(String target) {
+        return registry.find("datasource.routing.healthy").tag("target", target).gauge().value();
+    }
+}
@@ -0,0 +1,88 @@
+package com.mincheol.querydsl.entity;
+
+import com.mincheol.querydsl.support.EntityGraphs;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.mincheol.querydsl.entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 회원 1,000명 / 팀 100개를 돌면서 실행되는 SQL 수 확인
+ * batch fetch 가 없으면 1 + 100(팀) + 100(팀별 회원) = 201 번
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+public class AssociationFetchTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    JPAQueryFactory queryFactory;
+    Statistics statistics;
+
+    @BeforeEach
+    public void before() {
+        queryFactory = new JPAQueryFactory(em);
+        for (int i = 0; i < 100; i++) {
+            Team team = new Team("team" + i);
+            em.persist(team);
+            for (int j = 0; j < 10; j++) {
+                em.persist(new Member("member" + i + "_" + j, j, team));
+            }
+        }
+        em.flush();
+        em.clear();
+
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void batchFetchMembersAndTeams() {
+        List<Member> members = queryFactory.selectFrom(member).fetch();
+
+        Set<Team> teams = new LinkedHashSet<>();
+        for (Member m : members) {
+            m.getTeam().getName();      // 프록시 초기화
+            teams.add(m.getTeam());
+        }
+        assertThat(members).hasSize(1000);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);   // 회원 1 + 팀 100개 1
+
+        int total = 0;
+        for (Team team : teams) {
+            total += team.getMembers().size();    // 컬렉션 초기화
+        }
+        assertThat(total).isEqualTo(1000);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);   // 팀별 회원 100개 컬렉션 1
+    }
+
+    @Test
+    public void fetchGraphHint() {
+        List<Member> members = EntityGraphs
+                .fetchGraph(queryFactory.selectFrom(member), em, EntityGraphs.MEMBER_TEAM)
+                .fetch();
+
+        for (Member m : members) {
+            m.getTeam().getName();
+        }
+        assertThat(members).hasSize(1000);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,177 @@
+package com.mincheol.querydsl.entity;
+
+import com.mincheol.querydsl.dto.TeamAverageAgeDto;
+import com.mincheol.querydsl.repository.TeamQueryRepository;
+import com.mincheol.querydsl.service.BulkUpdateService;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static com.mincheol.querydsl.entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 2차 캐시는 커밋된 데이터만 다른 트랜잭션에 보이므로 테스트 데이터를 커밋하고 끝나면 지움
+@SpringBootTest
+class SecondLevelCacheTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    TeamQueryRepository teamQueryRepository;
+
+    @Autowired
+    BulkUpdateService bulkUpdateService;
+
+    @Autowired
+    MeterRegistry registry;
+
+    Statistics statistics;
+    Long teamAId;
+    Long teamBId;
+
+    @BeforeEach
+    public void before() {
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        inTransaction(() -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+
+            em.persist(new Member("member1", 10, teamA));
+            em.persist(new Member("member2", 20, teamA));
+            em.persist(new Member("member3", 30, teamB));
+            em.persist(new Member("member4", 40, teamB));
+            teamAId = teamA.getId();
+            teamBId = teamB.getId();
+            return null;
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        inTransaction(() -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+            return null;
+        });
+    }
+
+    @Test
+    public void teamEntity() {
+        // 커밋 시점에 캐시에 들어가 있으므로 첫 조회부터 DB 를 안 감
+        statistics.clear();
+        Team found = inTransaction(() -> em.find(Team.class, teamAId));
+
+        assertThat(found.getName()).isEqualTo("teamA");
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void lazyTeamProxy() {
+        statistics.clear();
+        List<String> teamNames = inTransaction(() -> {
+            List<Member> members = new JPAQueryFactory(em).selectFrom(member).orderBy(member.username.asc()).fetch();
+            return members.stream().map(m -> m.getTeam().getName()).collect(Collectors.toList());
+        });
+
+        assertThat(teamNames).containsExactly("teamA", "teamA", "teamB", "teamB");
+        // 회원 조회 1번, 팀 프록시는 캐시에서 초기화
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void teamMembersCollection() {
+        inTransaction(() -> em.find(Team.class, teamAId).getMembers().size());
+
+        statistics.clear();
+        List<String> usernames = inTransaction(() -> usernames(em.find(Team.class, teamAId)));
+
+        assertThat(usernames).containsExactlyInAnyOrder("member1", "member2");
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    public void teamMembersEvictedWhenMemberChangesTeam() {
+        inTransaction(() -> em.find(Team.class, teamAId).getMembers().size());
+
+        inTransaction(() -> {
+            Member member1 = new JPAQueryFactory(em).selectFrom(member).where(member.username.eq("member1")).fetchOne();
+            member1.setTeam(em.find(Team.class, teamBId));
+            return null;
+        });
+
+        assertThat(inTransaction(() -> usernames(em.find(Team.class, teamAId)))).containsExactly("member2");
+        assertThat(inTransaction(() -> usernames(em.find(Team.class, teamBId))))
+                .containsExactlyInAnyOrder("member1", "member3", "member4");
+    }
+
+    @Test
+    public void averageAgeQueryCache() {
+        List<TeamAverageAgeDto> first = inTransaction(() -> teamQueryRepository.findAverageAgeByTeam());
+        assertThat(first).extracting("averageAge").containsExactly(15.0, 35.0);
+
+        statistics.clear();
+        List<TeamAverageAgeDto> cached = inTransaction(() -> teamQueryRepository.findAverageAgeByTeam());
+        assertThat(cached).isEqualTo(first);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+
+        // 엔티티 수정이 커밋되면 결과 무효화
+        inTransaction(() -> {
+            new JPAQueryFactory(em).selectFrom(member).where(member.username.eq("member1")).fetchOne().setAge(30);
+            return null;
+        });
+        assertThat(inTransaction(() -> teamQueryRepository.findAverageAgeByTeam()))
+                .extracting("averageAge").containsExactly(25.0, 35.0);
+
+        // 벌크 update 도 마찬가지
+        bulkUpdateService.addAge(member.username.eq("member3"), 10);
+        assertThat(inTransaction(() -> teamQueryRepository.findAverageAgeByTeam()))
+                .extracting("averageAge").containsExactly(25.0, 40.0);
+    }
+
+    @Test
+    public void hitMissMetrics() {
+        inTransaction(() -> em.find(Team.class, teamAId));
+
+        FunctionCounter hits = registry.find("hibernate.second.level.cache.requests")
+                .tag("region", "team")
+                .tag("result", "hit")
+                .functionCounter();
+        assertThat(hits).isNotNull();
+        assertThat(hits.count()).isPositive();
+        assertThat(registry.find("hibernate.cache.query.requests").tag("result", "miss").functionCounter()).isNotNull();
+    }
+
+    private List<String> usernames(Team team) {
+        return team.getMembers().stream().map(Member::getUsername).collect(Collectors.toList());
+    }
+
+    private <T> T inTransaction(Supplier<T> action) {
+        return new TransactionTemplate(transactionManager).execute(status -> action.get());
+    }
+}
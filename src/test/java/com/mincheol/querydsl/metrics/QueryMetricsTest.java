@@ -0,0 +1,104 @@
+package com.mincheol.querydsl.metrics;
+
+import com.mincheol.querydsl.entity.Member;
+import com.mincheol.querydsl.entity.Team;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static com.mincheol.querydsl.entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "querydsl.metrics.repeated-statement-threshold=3")
+@Transactional
+class QueryMetricsTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    QueryMetrics queryMetrics;
+
+    @Autowired
+    MeterRegistry registry;
+
+    @BeforeEach
+    public void before() {
+        // 같은 컨텍스트의 다른 메트릭(hibernate.* 등)은 남겨둠
+        registry.getMeters().stream()
+                .filter(meter -> meter.getId().getName().startsWith("querydsl."))
+                .forEach(registry::remove);
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        for (int i = 1; i <= 4; i++) {
+            em.persist(new Member("member" + i, i * 10, teamA));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void recordFetch() {
+        assertThat(queryFactory).isInstanceOf(InstrumentedJPAQueryFactory.class);
+
+        List<Member> result = queryFactory
+                .selectFrom(member)
+                .where(member.age.goe(20))
+                .fetch();
+        assertThat(result).hasSize(3);
+
+        Timer timer = registry.find("querydsl.query").timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isEqualTo(1);
+        assertThat(timer.getId().getTag("shape")).isEqualTo("select member1 from Member member1 where member1.age >= ?1");
+
+        DistributionSummary rows = registry.find("querydsl.query.rows").summary();
+        assertThat(rows.totalAmount()).isEqualTo(3);
+        DistributionSummary entities = registry.find("querydsl.query.entities").summary();
+        assertThat(entities.totalAmount()).isEqualTo(3);
+        DistributionSummary statements = registry.find("querydsl.query.statements").summary();
+        assertThat(statements.totalAmount()).isEqualTo(1);
+    }
+
+    @Test
+    public void trackRepeatedStatements() {
+        int found = queryMetrics.track("lookup-loop", () -> {
+            int count = 0;
+            for (int i = 1; i <= 4; i++) {
+                count += queryFactory.selectFrom(member).where(member.username.eq("member" + i)).fetch().size();
+            }
+            return count;
+        });
+        assertThat(found).isEqualTo(4);
+
+        DistributionSummary statements = registry.find("querydsl.unit.statements").tag("name", "lookup-loop").summary();
+        assertThat(statements.totalAmount()).isEqualTo(4);
+        assertThat(registry.find("querydsl.unit.repeated").tag("name", "lookup-loop").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void lazyLoadingCountedInUnit() {
+        queryMetrics.track("members-with-team", () -> {
+            for (Member m : queryFactory.selectFrom(member).fetch()) {
+                m.getTeam().getName();
+            }
+            return null;
+        });
+
+        // 회원 1 + 팀 지연 로딩 1
+        DistributionSummary statements = registry.find("querydsl.unit.statements").tag("name", "members-with-team").summary();
+        assertThat(statements.totalAmount()).isEqualTo(2);
+    }
+}
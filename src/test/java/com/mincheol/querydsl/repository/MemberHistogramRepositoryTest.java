@@ -0,0 +1,107 @@
+package com.mincheol.querydsl.repository;
+
+import com.mincheol.querydsl.entity.Member;
+import com.mincheol.querydsl.entity.Team;
+import com.mincheol.querydsl.metrics.SqlStatementInspector;
+import com.mincheol.querydsl.metrics.StatementLog;
+import com.mincheol.querydsl.support.Buckets;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.Map;
+
+import static com.mincheol.querydsl.entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+@SpringBootTest
+@Transactional
+class MemberHistogramRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberHistogramRepository memberHistogramRepository;
+
+    Buckets<Integer> ageBuckets = Buckets.of(member.age)
+            .range("0~20", 0, 20)
+            .range("21~30", 21, 30)
+            .otherwise("기타");
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        em.persist(new Member("member5", 25));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void ageHistogram() {
+        Map<String, Long> histogram;
+        try (StatementLog log = SqlStatementInspector.open()) {
+            histogram = memberHistogramRepository.ageHistogram(ageBuckets, null);
+
+            assertThat(log.getTotal()).isEqualTo(1);
+            assertThat(log.getStatements()).allMatch(sql -> sql.contains("group by case when"));
+        }
+
+        assertThat(histogram).containsExactly(entry("0~20", 2L), entry("21~30", 2L), entry("기타", 1L));
+    }
+
+    @Test
+    public void emptyBucketsAreZero() {
+        Map<String, Long> histogram = memberHistogramRepository.ageHistogram(ageBuckets, member.age.goe(30));
+
+        assertThat(histogram).containsExactly(entry("0~20", 0L), entry("21~30", 1L), entry("기타", 1L));
+    }
+
+    @Test
+    public void withoutOtherwiseOutOfRangeIsNotCounted() {
+        Buckets<Integer> teens = Buckets.of(member.age).range("10대", 10, 19).range("20대", 20, 29);
+
+        Map<String, Long> histogram = memberHistogramRepository.ageHistogram(teens, null);
+
+        assertThat(histogram).containsExactly(entry("10대", 1L), entry("20대", 2L));
+    }
+
+    @Test
+    public void labelWithQuote() {
+        Buckets<Integer> quoted = Buckets.of(member.age).range("kid's", 0, 20).otherwise("other");
+
+        Map<String, Long> histogram = memberHistogramRepository.ageHistogram(quoted, null);
+
+        assertThat(histogram).containsExactly(entry("kid's", 2L), entry("other", 3L));
+    }
+
+    @Test
+    public void ageHistogramByTeam() {
+        Map<String, Map<String, Long>> crossTab = memberHistogramRepository.ageHistogramByTeam(ageBuckets, null);
+
+        // 팀이 없는 member5 는 빠짐
+        assertThat(crossTab).containsOnlyKeys("teamA", "teamB");
+        assertThat(crossTab.keySet()).containsExactly("teamA", "teamB");
+        assertThat(crossTab.get("teamA")).containsExactly(entry("0~20", 2L), entry("21~30", 0L), entry("기타", 0L));
+        assertThat(crossTab.get("teamB")).containsExactly(entry("0~20", 0L), entry("21~30", 1L), entry("기타", 1L));
+    }
+
+    @Test
+    public void duplicateLabel() {
+        assertThatThrownBy(() -> Buckets.of(member.age).range("a", 0, 10).range("a", 11, 20))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,86 @@
+package com.mincheol.querydsl.repository;
+
+import com.mincheol.querydsl.dto.KeysetPage;
+import com.mincheol.querydsl.entity.Member;
+import com.mincheol.querydsl.entity.Team;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.mincheol.querydsl.entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Transactional
+class MemberKeysetRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberKeysetRepository memberKeysetRepository;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+
+        for (int i = 0; i < 20; i++) {
+            em.persist(new Member("member" + (i % 7), i, teamA));   // username 중복
+        }
+        em.persist(new Member(null, 100));
+        em.persist(new Member(null, 101));
+    }
+
+    @Test
+    public void keysetPagingMatchesOffsetPaging() {
+        List<Member> expected = new JPAQueryFactory(em)
+                .selectFrom(member)
+                .orderBy(member.username.desc().nullsLast(), member.id.desc())
+                .fetch();
+
+        List<Member> result = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            KeysetPage<Member> page = memberKeysetRepository.findPage(cursor, 5);
+            assertThat(page.getContent().size()).isLessThanOrEqualTo(5);
+            result.addAll(page.getContent());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(5);
+        assertThat(result).containsExactlyElementsOf(expected);
+        assertThat(result.get(result.size() - 1).getUsername()).isNull();
+    }
+
+    @Test
+    public void lastPageHasNoCursor() {
+        KeysetPage<Member> page = memberKeysetRepository.findPage(null, 100);
+
+        assertThat(page.getContent()).hasSize(22);
+        assertThat(page.hasNext()).isFalse();
+    }
+
+    @Test
+    public void cursorRoundTrip() {
+        MemberCursor cursor = MemberCursor.decode(new MemberCursor("회원:1", 3L).encode());
+        assertThat(cursor.getUsername()).isEqualTo("회원:1");
+        assertThat(cursor.getId()).isEqualTo(3L);
+
+        MemberCursor nullCursor = MemberCursor.decode(new MemberCursor(null, 7L).encode());
+        assertThat(nullCursor.getUsername()).isNull();
+
+        assertThatThrownBy(() -> MemberCursor.decode("not-a-cursor"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
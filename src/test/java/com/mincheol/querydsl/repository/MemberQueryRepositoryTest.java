@@ -0,0 +1,198 @@
+package com.mincheol.querydsl.repository;
+
+import com.mincheol.querydsl.dto.MemberDto;
+import com.mincheol.querydsl.dto.MemberSearchCondition;
+import com.mincheol.querydsl.dto.MemberTeamDto;
+import com.mincheol.querydsl.entity.Member;
+import com.mincheol.querydsl.entity.Team;
+import com.mincheol.querydsl.metrics.SqlStatementInspector;
+import com.mincheol.querydsl.metrics.StatementLog;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 비동기 count 는 별도 커넥션에서 실행되므로 테스트 데이터를 커밋하고 끝나면 지움
+@SpringBootTest
+class MemberQueryRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    MemberQueryRepository memberQueryRepository;
+
+    @BeforeEach
+    public void before() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+
+            em.persist(new Member("member1", 10, teamA));
+            em.persist(new Member("member2", 20, teamA));
+            em.persist(new Member("member3", 30, teamB));
+            em.persist(new Member("member4", 40, teamB));
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    public void searchPage() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+
+        Page<MemberTeamDto> result = memberQueryRepository.searchPage(condition, PageRequest.of(0, 2));
+
+        assertThat(result.getTotalElements()).isEqualTo(3);
+        assertThat(result.getTotalPages()).isEqualTo(2);
+        assertThat(result.getContent()).extracting("username").containsExactly("member2", "member3");
+    }
+
+    @Test
+    public void searchPageWithTeamCondition() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+
+        Page<MemberTeamDto> result = memberQueryRepository.searchPage(condition, PageRequest.of(0, 1));
+
+        assertThat(result.getTotalElements()).isEqualTo(2);
+        assertThat(result.getContent()).extracting("teamName").containsExactly("teamB");
+    }
+
+    @Test
+    public void searchPageShortFirstPage() {
+        // 첫 페이지가 size 보다 작으면 count 없이 content 크기가 total
+        Page<MemberTeamDto> result = memberQueryRepository.searchPage(new MemberSearchCondition(), PageRequest.of(0, 10));
+
+        assertThat(result.getTotalElements()).isEqualTo(4);
+        assertThat(result.getContent()).hasSize(4);
+    }
+
+    @Test
+    public void searchPageWithAsyncCount() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeLoe(30);
+
+        Page<MemberTeamDto> result = memberQueryRepository.searchPageWithAsyncCount(condition, PageRequest.of(0, 2));
+
+        assertThat(result.getTotalElements()).isEqualTo(3);
+        assertThat(result.getContent()).extracting("username").containsExactly("member1", "member2");
+
+        Page<MemberTeamDto> last = memberQueryRepository.searchPageWithAsyncCount(condition, PageRequest.of(1, 2));
+        assertThat(last.getTotalElements()).isEqualTo(3);
+        assertThat(last.getContent()).extracting("username").containsExactly("member3");
+    }
+
+    @Test
+    public void searchByUsernamePrefix() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsernamePrefix("member");
+        condition.setAgeGoe(20);
+
+        try (StatementLog log = SqlStatementInspector.open()) {
+            List<MemberDto> result = memberQueryRepository.search(condition, 2);
+
+            assertThat(result).extracting("username").containsExactly("member4", "member3");
+            assertThat(log.getStatements()).allMatch(sql -> !sql.contains(" join "));   // 팀 조건이 없으면 join 안 함
+        }
+    }
+
+    @Test
+    public void searchByTeamNameJoinsTeam() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        try (StatementLog log = SqlStatementInspector.open()) {
+            List<MemberDto> result = memberQueryRepository.search(condition, 10);
+
+            assertThat(result).extracting("username").containsExactly("member1", "member2");
+            assertThat(log.getStatements()).anyMatch(sql -> sql.contains(" join "));
+        }
+    }
+
+    @Test
+    public void searchByAgeRangeOrdersByAge() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(15);
+        condition.setAgeLoe(35);
+
+        List<MemberDto> result = memberQueryRepository.search(condition, 10);
+
+        assertThat(result).extracting("age").containsExactly(20, 30);
+    }
+
+    @Test
+    public void searchPrefixIsNotWildcard() {
+        // 접두사의 % 는 이스케이프되어 글자 그대로 비교됨
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsernamePrefix("%1");
+
+        assertThat(memberQueryRepository.search(condition, 10)).isEmpty();
+    }
+
+    @Test
+    public void searchUsesIndexes() {
+        MemberSearchCondition prefix = new MemberSearchCondition();
+        prefix.setUsernamePrefix("member");
+        assertThat(explainSearch(prefix, "member%")).contains("IDX_MEMBER_USERNAME_ID");
+
+        MemberSearchCondition age = new MemberSearchCondition();
+        age.setAgeGoe(20);
+        age.setAgeLoe(30);
+        assertThat(explainSearch(age, 20, 30)).contains("IDX_MEMBER_AGE_ID");
+
+        MemberSearchCondition teamName = new MemberSearchCondition();
+        teamName.setTeamName("teamA");
+        assertThat(explainSearch(teamName, "teamA")).contains("IDX_TEAM_NAME");
+    }
+
+    // search 가 실제로 보낸 SQL 을 같은 파라미터로 EXPLAIN (마지막 파라미터는 limit)
+    private String explainSearch(MemberSearchCondition condition, Object... params) {
+        String sql;
+        try (StatementLog log = SqlStatementInspector.open()) {
+            memberQueryRepository.search(condition, 10);
+            sql = log.getStatements().iterator().next();
+        }
+
+        StringBuilder plan = new StringBuilder();
+        em.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement("explain " + sql)) {
+                for (int i = 0; i < params.length; i++) {
+                    ps.setObject(i + 1, params[i]);
+                }
+                ps.setInt(params.length + 1, 10);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        plan.append(rs.getString(1));
+                    }
+                }
+            }
+        });
+        return plan.toString();
+    }
+}
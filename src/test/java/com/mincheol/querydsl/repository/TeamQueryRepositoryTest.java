@@ -0,0 +1,81 @@
+package com.mincheol.querydsl.repository;
+
+import com.mincheol.querydsl.entity.Member;
+import com.mincheol.querydsl.entity.Team;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import static com.mincheol.querydsl.entity.QMember.member;
+import static com.mincheol.querydsl.entity.QTeam.team;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Transactional
+class TeamQueryRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    TeamQueryRepository teamQueryRepository;
+
+    @BeforeEach
+    public void before() {
+        for (int i = 0; i < 5; i++) {
+            Team t = new Team("team" + i);
+            em.persist(t);
+            for (int j = 0; j <= i; j++) {
+                em.persist(new Member("member" + i + "_" + j, j, t));
+            }
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void findPageWithMembers() {
+        Page<Team> page = teamQueryRepository.findPageWithMembers(
+                team.name.ne("team0"), PageRequest.of(1, 2), team.name.desc());
+
+        assertThat(page.getTotalElements()).isEqualTo(4);
+        assertThat(page.getContent()).extracting("name").containsExactly("team2", "team1");
+
+        for (Team t : page.getContent()) {
+            assertThat(emf.getPersistenceUnitUtil().isLoaded(t, "members")).isTrue();
+        }
+        assertThat(page.getContent().get(0).getMembers()).hasSize(3);
+        assertThat(page.getContent().get(1).getMembers()).hasSize(2);
+    }
+
+    @Test
+    public void emptyPage() {
+        Page<Team> page = teamQueryRepository.findPageWithMembers(null, PageRequest.of(10, 2));
+
+        assertThat(page.getContent()).isEmpty();
+        assertThat(page.getTotalElements()).isEqualTo(5);
+    }
+
+    @Test
+    public void collectionFetchJoinPagingFailsFast() {
+        assertThatThrownBy(() -> new JPAQueryFactory(em)
+                .selectFrom(team)
+                .join(team.members, member).fetchJoin()
+                .offset(0)
+                .limit(2)
+                .fetch())
+                .hasStackTraceContaining("firstResult/maxResults");
+    }
+}
@@ -0,0 +1,167 @@
+package com.mincheol.querydsl.search;
+
+import com.mincheol.querydsl.dto.MemberDto;
+import com.mincheol.querydsl.entity.Member;
+import com.mincheol.querydsl.entity.QMemberUsernameGram;
+import com.mincheol.querydsl.entity.Team;
+import com.mincheol.querydsl.metrics.SqlStatementInspector;
+import com.mincheol.querydsl.metrics.StatementLog;
+import com.mincheol.querydsl.repository.MemberUsernameSearchRepository;
+import com.mincheol.querydsl.seed.DataSeeder;
+import com.mincheol.querydsl.seed.SeedResult;
+import com.mincheol.querydsl.seed.SeedSpec;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static com.mincheol.querydsl.entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "querydsl.username-index.enabled=true")
+@Transactional
+class UsernameIndexTest {
+
+    static final QMemberUsernameGram gram = QMemberUsernameGram.memberUsernameGram;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    UsernameIndex usernameIndex;
+
+    @Autowired
+    MemberUsernameSearchRepository memberUsernameSearchRepository;
+
+    @Autowired
+    DataSeeder dataSeeder;
+
+    JPAQueryFactory queryFactory;
+    Member member1;
+
+    @BeforeEach
+    public void before() {
+        queryFactory = new JPAQueryFactory(em);
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+
+        member1 = new Member("member1", 10, teamA);
+        em.persist(member1);
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member12", 30, teamA));
+        em.persist(new Member("kim", 40));
+        em.persist(new Member(null, 50));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void grams() {
+        assertThat(UsernameGrams.index("member1")).containsExactly("mem", "emb", "mbe", "ber", "er1");
+        assertThat(UsernameGrams.index("ab")).isEmpty();
+        assertThat(UsernameGrams.index(null)).isEmpty();
+        assertThat(UsernameGrams.query("ber12")).containsExactly("ber", "er1", "r12");
+        assertThat(UsernameGrams.query("12")).isEmpty();
+    }
+
+    @Test
+    public void insertWritesGrams() {
+        List<String> grams = queryFactory
+                .select(gram.gram)
+                .from(gram)
+                .where(gram.memberId.eq(member1.getId()))
+                .fetch();
+
+        assertThat(grams).containsExactlyInAnyOrder("mem", "emb", "mbe", "ber", "er1");
+    }
+
+    @Test
+    public void contains() {
+        List<String> result;
+        try (StatementLog log = SqlStatementInspector.open()) {
+            result = usernames(usernameIndex.contains("ber1"));
+
+            assertThat(log.getStatements()).anyMatch(sql -> sql.contains("member_username_gram"));
+        }
+
+        assertThat(result).containsExactly("member1", "member12");
+    }
+
+    @Test
+    public void shortTerm() {
+        assertThat(usernames(usernameIndex.contains("12"))).containsExactly("member12");
+        assertThat(usernames(usernameIndex.contains("m"))).containsExactly("member1", "member2", "member12", "kim");
+    }
+
+    @Test
+    public void noMatch() {
+        assertThat(usernames(usernameIndex.contains("xyz"))).isEmpty();
+        // 조각은 모두 있지만 이어져 있지 않음
+        assertThat(usernames(usernameIndex.contains("memkim"))).isEmpty();
+    }
+
+    @Test
+    public void updateAndDeleteReplaceGrams() {
+        Member found = em.find(Member.class, member1.getId());
+        found.setUsername("lee");
+        em.flush();
+
+        assertThat(usernames(usernameIndex.contains("ber1"))).containsExactly("member12");
+        assertThat(usernames(usernameIndex.contains("lee"))).containsExactly("lee");
+
+        em.remove(found);
+        em.flush();
+
+        assertThat(usernames(usernameIndex.contains("lee"))).isEmpty();
+        assertThat(queryFactory.selectFrom(gram).where(gram.memberId.eq(member1.getId())).fetch()).isEmpty();
+    }
+
+    @Test
+    public void rebuildAfterNativeUpdate() {
+        // 네이티브 쿼리는 리스너를 거치지 않음
+        em.createNativeQuery("update member set username = 'park' where member_id = " + member1.getId()).executeUpdate();
+        assertThat(usernames(usernameIndex.contains("park"))).isEmpty();
+
+        usernameIndex.rebuild(member1.getId(), member1.getId());
+
+        assertThat(usernames(usernameIndex.contains("park"))).containsExactly("park");
+        assertThat(usernames(usernameIndex.contains("ber1"))).containsExactly("member12");
+    }
+
+    @Test
+    public void searchRepository() {
+        assertThat(memberUsernameSearchRepository.findByUsernameContaining("er", 2))
+                .extracting(MemberDto::getUsername)
+                .containsExactly("member1", "member2");
+        assertThat(memberUsernameSearchRepository.findByUsernamePrefix("member1", 10))
+                .extracting(MemberDto::getUsername)
+                .containsExactly("member12", "member1");
+        assertThat(memberUsernameSearchRepository.findByUsernameContaining("", 10)).isEmpty();
+    }
+
+    @Test
+    public void seededMembersAreIndexed() {
+        // DataSeeder 는 JDBC 로 바로 넣으므로 리스너 대신 rebuild 로 색인됨
+        SeedResult result = dataSeeder.seed(new SeedSpec().setTeams(2).setMembers(300));
+
+        List<String> found = usernames(member.id.between(result.getFirstMemberId(), result.getLastMemberId())
+                .and(usernameIndex.contains("ber29")));
+        assertThat(found).containsExactly("member29", "member290", "member291", "member292", "member293",
+                "member294", "member295", "member296", "member297", "member298", "member299");
+    }
+
+    private List<String> usernames(Predicate predicate) {
+        return queryFactory
+                .select(member.username)
+                .from(member)
+                .where(predicate)
+                .orderBy(member.id.asc())
+                .fetch();
+    }
+}
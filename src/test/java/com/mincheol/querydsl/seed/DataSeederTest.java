@@ -0,0 +1,226 @@
+package com.mincheol.querydsl.seed;
+
+import com.mincheol.querydsl.dto.TeamStatsDto;
+import com.mincheol.querydsl.entity.Member;
+import com.mincheol.querydsl.entity.Team;
+import com.mincheol.querydsl.search.UsernameIndex;
+import com.mincheol.querydsl.stats.TeamStatsRepository;
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static com.mincheol.querydsl.entity.QMember.member;
+import static com.mincheol.querydsl.entity.QTeam.team;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Transactional
+class DataSeederTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    DataSeeder dataSeeder;
+
+    @Autowired
+    TeamStatsRepository teamStatsRepository;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    ObjectProvider<UsernameIndex> usernameIndex;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    JPAQueryFactory queryFactory;
+
+    @BeforeEach
+    public void before() {
+        queryFactory = new JPAQueryFactory(em);
+    }
+
+    @Test
+    public void sameSpecSameData() {
+        SeedSpec spec = new SeedSpec().setTeams(10).setMembers(2000).setTeamSkew(1.0)
+                .setNullUsernameRatio(0.1).setAges(AgeDistribution.NORMAL);
+
+        SeedResult first = dataSeeder.seed(spec);
+        SeedResult second = dataSeeder.seed(spec);
+
+        assertThat(second.getFirstMemberId()).isGreaterThan(first.getLastMemberId());
+        assertThat(rows(second)).isEqualTo(rows(first));
+        assertThat(rows(dataSeeder.seed(spec.setSeed(7)))).isNotEqualTo(rows(first));
+    }
+
+    @Test
+    public void sequentialLayout() {
+        SeedResult result = dataSeeder.seed(new SeedSpec().setTeams(3).setMembers(250));
+
+        assertThat(result.getTeams()).isEqualTo(3);
+        assertThat(result.getMembers()).isEqualTo(250);
+        List<String> sample = rows(result).subList(0, 4);
+        // 회원 i : member{i}, 나이 i % 100, 팀 i % teams
+        assertThat(sample).containsExactly("member0/0/team0", "member1/1/team1", "member2/2/team2", "member3/3/team0");
+        assertThat(rows(result).get(101)).isEqualTo("member101/1/team2");
+    }
+
+    @Test
+    public void zipfTeamSizes() {
+        SeedResult result = dataSeeder.seed(new SeedSpec().setTeams(10).setMembers(20_000).setTeamSkew(1.0));
+
+        Map<String, Long> sizes = teamSizes(result);
+        // 지수 1 : team0 이 team9 의 10 배 정도
+        assertThat(sizes.get("team0")).isGreaterThan(sizes.get("team1"));
+        assertThat((double) sizes.get("team0") / sizes.get("team9")).isBetween(7.0, 13.0);
+        assertThat(sizes.values().stream().mapToLong(Long::longValue).sum()).isEqualTo(20_000);
+    }
+
+    @Test
+    public void nullUsernameRatio() {
+        SeedResult result = dataSeeder.seed(new SeedSpec().setMembers(10_000).setNullUsernameRatio(0.2));
+
+        Long nulls = queryFactory
+                .select(member.count())
+                .from(member)
+                .where(member.id.between(result.getFirstMemberId(), result.getLastMemberId()), member.username.isNull())
+                .fetchOne();
+        assertThat(nulls).isBetween(1800L, 2200L);
+    }
+
+    @Test
+    public void normalAges() {
+        SeedResult result = dataSeeder.seed(new SeedSpec().setMembers(10_000).setAges(AgeDistribution.NORMAL));
+
+        Tuple stats = queryFactory
+                .select(member.age.avg(), member.age.min(), member.age.max())
+                .from(member)
+                .where(member.id.between(result.getFirstMemberId(), result.getLastMemberId()))
+                .fetchOne();
+        assertThat(stats.get(member.age.avg())).isBetween(34.0, 36.0);
+        assertThat(stats.get(member.age.min())).isGreaterThanOrEqualTo(0);
+        assertThat(stats.get(member.age.max())).isLessThan(100);
+    }
+
+    @Test
+    public void persistAfterSeedDoesNotReuseIds() {
+        Team before = new Team("before");
+        em.persist(before);
+        em.flush();
+
+        SeedResult result = dataSeeder.seed(new SeedSpec().setTeams(2).setMembers(100));
+
+        // 시드 전에 Hibernate 가 받아둔 id 블록과, 시드 후 새로 받는 블록 모두 시드 id 와 겹치지 않음
+        Team after = new Team("after");
+        em.persist(after);
+        Member memberAfter = new Member("after", 1, after);
+        em.persist(memberAfter);
+        em.flush();
+
+        assertThat(before.getId()).isLessThan(result.getFirstTeamId());
+        assertThat(after.getId()).satisfiesAnyOf(
+                id -> assertThat(id).isLessThan(result.getFirstTeamId()),
+                id -> assertThat(id).isGreaterThan(result.getLastTeamId()));
+        assertThat(memberAfter.getId()).satisfiesAnyOf(
+                id -> assertThat(id).isLessThan(result.getFirstMemberId()),
+                id -> assertThat(id).isGreaterThan(result.getLastMemberId()));
+    }
+
+    @Test
+    public void teamStatsAreSeeded() {
+        SeedResult result = dataSeeder.seed(new SeedSpec().setTeams(4).setMembers(400));
+
+        List<TeamStatsDto> stats = teamStatsRepository.findAll().stream()
+                .filter(s -> s.getTeamId() >= result.getFirstTeamId() && s.getTeamId() <= result.getLastTeamId())
+                .collect(Collectors.toList());
+        assertThat(stats).hasSize(4).allMatch(s -> s.getCount() == 100);
+
+        // 치우친 팀 크기 + 정규분포 나이 (회원이 없는 팀도 생김) : 실시간 group by 와 전부 같음
+        dataSeeder.seed(new SeedSpec().setTeams(200).setMembers(300).setTeamSkew(1.5).setAges(AgeDistribution.NORMAL));
+        assertThat(teamStatsRepository.reconcile()).isEmpty();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void deferredIndexesAreRestored() {
+        // 트랜잭션 밖 + 기준 1명 : 인덱스/외래키를 지우고 넣은 뒤 다시 만드는 경로 (커밋되므로 끝나고 직접 지움)
+        DataSeeder deferring = new DataSeeder(dataSource, emf, usernameIndex, 100, 1000, 1);
+        List<String> indexesBefore = memberIndexes();
+
+        SeedResult result = deferring.seed(new SeedSpec().setTeams(3).setMembers(300));
+        try {
+            assertThat(memberIndexes()).isEqualTo(indexesBefore);
+            assertThat(jdbcTemplate.queryForObject("select count(*) from member where member_id between ? and ?",
+                    Long.class, result.getFirstMemberId(), result.getLastMemberId())).isEqualTo(300L);
+            // 외래키가 다시 걸려 있음
+            assertThatThrownBy(() -> jdbcTemplate.update("insert into member (member_id, age, team_id) values (?, 1, ?)",
+                    result.getLastMemberId() + 1, result.getLastTeamId() + 1000))
+                    .isInstanceOf(DataIntegrityViolationException.class);
+        } finally {
+            jdbcTemplate.update("delete from member where member_id between ? and ?", result.getFirstMemberId(), result.getLastMemberId());
+            jdbcTemplate.update("delete from team where team_id between ? and ?", result.getFirstTeamId(), result.getLastTeamId());
+            jdbcTemplate.update("delete from team_stats where team_id between ? and ?", result.getFirstTeamId(), result.getLastTeamId());
+        }
+    }
+
+    @Test
+    public void invalidSpec() {
+        assertThatThrownBy(() -> dataSeeder.seed(new SeedSpec().setNullUsernameRatio(1.5)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // id 순서대로 "username/age/teamName"
+    private List<String> rows(SeedResult result) {
+        List<Tuple> tuples = queryFactory
+                .select(member.username, member.age, team.name)
+                .from(member)
+                .join(member.team, team)
+                .where(member.id.between(result.getFirstMemberId(), result.getLastMemberId()))
+                .orderBy(member.id.asc())
+                .fetch();
+        List<String> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            rows.add(tuple.get(member.username) + "/" + tuple.get(member.age) + "/" + tuple.get(team.name));
+        }
+        return rows;
+    }
+
+    private List<String> memberIndexes() {
+        return jdbcTemplate.queryForList("select distinct sql from information_schema.indexes"
+                + " where table_schema = schema() and table_name = 'MEMBER' order by sql", String.class);
+    }
+
+    private Map<String, Long> teamSizes(SeedResult result) {
+        return queryFactory
+                .select(team.name, member.count())
+                .from(member)
+                .join(member.team, team)
+                .where(member.id.between(result.getFirstMemberId(), result.getLastMemberId()))
+                .groupBy(team.name)
+                .fetch()
+                .stream()
+                .collect(Collectors.toMap(t -> t.get(team.name), t -> t.get(member.count())));
+    }
+}
@@ -0,0 +1,66 @@
+package com.mincheol.querydsl.service;
+
+import com.mincheol.querydsl.entity.Member;
+import com.mincheol.querydsl.entity.Team;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.mincheol.querydsl.entity.QMember.member;
+import static com.mincheol.querydsl.entity.QTeam.team;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "querydsl.bulk.chunk-size=500"
+})
+@Transactional
+class BulkInsertServiceTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    BulkInsertService bulkInsertService;
+
+    @Test
+    public void insertTeamsInBatches() {
+        List<Team> teams = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Team t = new Team("team" + i);
+            for (int j = 0; j < 100; j++) {
+                new Member("member" + i + "_" + j, j, t);
+            }
+            teams.add(t);
+        }
+
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        long rows = bulkInsertService.insertTeams(teams);
+
+        assertThat(rows).isEqualTo(1010);
+        // 1010 건을 insert 하는데 시퀀스 조회 + batch 실행 문장 수는 row 수보다 훨씬 적음
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(rows / 10);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(1010);
+
+        JPAQueryFactory queryFactory = new JPAQueryFactory(em);
+        assertThat(queryFactory.select(member.count()).from(member).fetchOne()).isEqualTo(1000);
+        assertThat(queryFactory.select(member.count()).from(member)
+                .join(member.team, team)
+                .where(team.name.eq("team3"))
+                .fetchOne()).isEqualTo(100);
+    }
+}
@@ -0,0 +1,127 @@
+package com.mincheol.querydsl.service;
+
+import com.mincheol.querydsl.entity.Member;
+import com.mincheol.querydsl.entity.QMember;
+import com.mincheol.querydsl.entity.Team;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static com.mincheol.querydsl.entity.QMember.member;
+import static com.mincheol.querydsl.entity.QTeam.team;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "querydsl.bulk.chunk-size=3")
+@Transactional
+class BulkUpdateServiceTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    BulkUpdateService bulkUpdateService;
+
+    JPAQueryFactory queryFactory;
+    Team teamA;
+    Team teamB;
+
+    @BeforeEach
+    public void before() {
+        queryFactory = new JPAQueryFactory(em);
+        teamA = new Team("teamA");
+        teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        // chunk 크기(3)보다 많이 넣어서 여러 chunk 로 나뉘게 함
+        for (int i = 0; i < 10; i++) {
+            em.persist(new Member("member" + i, i * 10, i % 2 == 0 ? teamA : teamB));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void addAge() {
+        Member loaded = findByUsername("member5");
+        assertThat(loaded.getAge()).isEqualTo(50);
+
+        long rows = bulkUpdateService.addAge(member.age.goe(30), 1);
+
+        assertThat(rows).isEqualTo(7);
+        // em.clear() 없이도 이미 로딩된 엔티티가 바뀐 값을 봄
+        assertThat(loaded.getAge()).isEqualTo(51);
+        assertThat(ages()).containsExactly(0, 10, 20, 31, 41, 51, 61, 71, 81, 91);
+    }
+
+    @Test
+    public void pendingChangesAreFlushedFirst() {
+        Member loaded = findByUsername("member1");
+        loaded.setUsername("renamed");
+
+        bulkUpdateService.addAge(member.id.eq(loaded.getId()), 1);
+
+        // refresh 로 덮어써지지 않고 이름 변경도 반영되어 있어야 함
+        assertThat(loaded.getUsername()).isEqualTo("renamed");
+        assertThat(loaded.getAge()).isEqualTo(11);
+    }
+
+    @Test
+    public void predicateWithTeamJoinAndSubQuery() {
+        QMember memberSub = new QMember("memberSub");
+
+        long rows = bulkUpdateService.addAge(team.name.eq("teamA")
+                .and(member.age.in(JPAExpressions
+                        .select(memberSub.age)
+                        .from(memberSub)
+                        .where(memberSub.age.gt(30)))), 100);
+
+        assertThat(rows).isEqualTo(3);     // teamA 중 age 40, 60, 80
+        assertThat(ages()).containsExactly(0, 10, 20, 30, 50, 70, 90, 140, 160, 180);
+    }
+
+    @Test
+    public void changeTeam() {
+        Team loadedA = em.find(Team.class, teamA.getId());
+        Team loadedB = em.find(Team.class, teamB.getId());
+        assertThat(loadedA.getMembers()).hasSize(5);
+        assertThat(loadedB.getMembers()).hasSize(5);
+        Member moving = findByUsername("member0");
+
+        long rows = bulkUpdateService.changeTeam(team.name.eq("teamA").and(member.age.lt(50)), loadedB);
+
+        assertThat(rows).isEqualTo(3);
+        assertThat(moving.getTeam()).isSameAs(loadedB);
+        assertThat(loadedA.getMembers()).extracting("username").containsExactlyInAnyOrder("member6", "member8");
+        assertThat(loadedB.getMembers()).hasSize(8).contains(moving);
+    }
+
+    @Test
+    public void delete() {
+        Team loadedA = em.find(Team.class, teamA.getId());
+        assertThat(loadedA.getMembers()).hasSize(5);
+        Member removed = findByUsername("member2");
+
+        long rows = bulkUpdateService.delete(team.name.eq("teamA"));
+
+        assertThat(rows).isEqualTo(5);
+        assertThat(em.contains(removed)).isFalse();
+        assertThat(loadedA.getMembers()).isEmpty();
+        assertThat(ages()).containsExactly(10, 30, 50, 70, 90);
+    }
+
+    private Member findByUsername(String username) {
+        return queryFactory.selectFrom(member).where(member.username.eq(username)).fetchOne();
+    }
+
+    private List<Integer> ages() {
+        return queryFactory.select(member.age).from(member).orderBy(member.age.asc()).fetch();
+    }
+}
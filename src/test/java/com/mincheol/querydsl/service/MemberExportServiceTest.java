@@ -0,0 +1,110 @@
+package com.mincheol.querydsl.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mincheol.querydsl.service.MemberExportService.Format;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "querydsl.export.flush-interval=1000")
+@Transactional
+class MemberExportServiceTest {
+
+    static final int ROWS = 10_000;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberExportService memberExportService;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    private void insertMembers(int rows) {
+        em.createNativeQuery("insert into member (member_id, username, age) " +
+                "select x, concat('member', x), mod(x, 100) from system_range(1, " + rows + ")")
+                .executeUpdate();
+    }
+
+    @Test
+    public void exportNdjson() throws Exception {
+        insertMembers(ROWS);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = memberExportService.export(out, Format.NDJSON);
+
+        String[] lines = out.toString(UTF_8.name()).split("\n");
+        assertThat(count).isEqualTo(ROWS);
+        assertThat(lines).hasSize(ROWS);
+        assertThat(objectMapper.readTree(lines[0]).get("username").asText()).isEqualTo("member1");
+        assertThat(objectMapper.readTree(lines[ROWS - 1]).get("age").asInt()).isEqualTo(0);
+        assertThat(em.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
+    @Test
+    public void exportArray() throws Exception {
+        insertMembers(ROWS);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        memberExportService.export(out, Format.ARRAY);
+
+        JsonNode array = objectMapper.readTree(out.toByteArray());
+        assertThat(array.isArray()).isTrue();
+        assertThat(array.size()).isEqualTo(ROWS);
+        assertThat(array.get(1).get("username").asText()).isEqualTo("member2");
+    }
+
+    @Test
+    public void exportEmpty() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThat(memberExportService.export(out, Format.ARRAY)).isZero();
+        assertThat(out.toString(UTF_8.name())).isEqualTo("[]");
+    }
+
+    @Test
+    public void flushesInChunks() {
+        insertMembers(ROWS);
+        FlushRecordingStream out = new FlushRecordingStream();
+
+        memberExportService.export(out, Format.NDJSON);
+
+        // 첫 row 를 쓰자마자 한 번, 이후 1000 건마다 (+ 끝날 때)
+        assertThat(out.linesAtFlush.get(0)).isEqualTo(1);
+        assertThat(out.linesAtFlush).contains(1000, 5000, ROWS);
+        assertThat(out.linesAtFlush.size()).isLessThanOrEqualTo(ROWS / 1000 + 3);
+    }
+
+    static class FlushRecordingStream extends ByteArrayOutputStream {
+
+        final List<Integer> linesAtFlush = new ArrayList<>();
+        int lines;
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            super.write(b, off, len);
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+
+        @Override
+        public void flush() {
+            linesAtFlush.add(lines);
+        }
+    }
+}
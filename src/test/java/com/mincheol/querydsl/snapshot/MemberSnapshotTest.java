@@ -0,0 +1,215 @@
+package com.mincheol.querydsl.snapshot;
+
+import com.mincheol.querydsl.dto.TeamStatsDto;
+import com.mincheol.querydsl.entity.Member;
+import com.mincheol.querydsl.entity.Team;
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.mincheol.querydsl.entity.QMember.member;
+import static com.mincheol.querydsl.entity.QTeam.team;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 스냅샷은 커밋된 데이터를 다른 커넥션으로 읽고 커밋 후 이벤트로 갱신하므로 테스트 트랜잭션(롤백) 없이 커밋하고 끝나면 직접 지움
+ * 결과는 같은 조건의 JPQL 결과와 비교함
+ */
+@SpringBootTest(properties = "querydsl.snapshot.enabled=true")
+class MemberSnapshotTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberSnapshot snapshot;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    JPAQueryFactory queryFactory;
+    Team teamA;
+    Team teamB;
+    List<Long> memberIds = new ArrayList<>();
+
+    @BeforeEach
+    public void before() {
+        queryFactory = new JPAQueryFactory(em);
+        transactionTemplate.executeWithoutResult(status -> {
+            teamA = new Team("teamA");
+            teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            persist(new Member("member1", 10, teamA));
+            persist(new Member("member2", 20, teamA));
+            persist(new Member("member3", 30, teamB));
+            persist(new Member("member4", 40, teamB));
+            persist(new Member("Kim", 25));
+            persist(new Member(null, 50, teamB));
+        });
+        snapshot.refresh();
+    }
+
+    @AfterEach
+    public void after() {
+        for (Long memberId : memberIds) {
+            jdbcTemplate.update("delete from member where member_id = ?", memberId);
+        }
+        for (Team team : Arrays.asList(teamA, teamB)) {
+            jdbcTemplate.update("delete from team_stats where team_id = ?", team.getId());
+            jdbcTemplate.update("delete from team where team_id = ?", team.getId());
+        }
+    }
+
+    @Test
+    public void predicatesMatchJpql() {
+        List<Predicate> predicates = Arrays.asList(
+                null,
+                new BooleanBuilder(),
+                member.age.between(20, 40),
+                member.age.goe(25).and(member.age.lt(50)),
+                member.age.in(10, 40, 99),
+                member.age.notIn(10, 40),
+                member.age.ne(10).not(),
+                member.id.gt(memberIds.get(2)),
+                member.username.eq("member1"),
+                member.username.ne("member1"),
+                member.username.ne("member1").not(),
+                member.username.isNull(),
+                member.username.startsWith("member"),
+                member.username.containsIgnoreCase("KI"),
+                member.username.like("member_"),
+                member.username.in("member2", "Kim").or(member.age.gt(45)),
+                member.username.startsWith("member").and(member.age.gt(15)).not(),
+                member.team.isNull(),
+                member.team.eq(teamA),
+                member.team.id.ne(teamA.getId()),
+                member.team.name.eq("teamB"),
+                member.team.name.startsWith("team").not(),
+                member.age.lt(15).or(member.team.name.eq("teamB")),
+                team.name.in("teamA", "teamB").and(member.age.loe(30)),
+                team.id.eq(teamB.getId()));
+
+        for (Predicate predicate : predicates) {
+            assertThat(snapshot.count(predicate))
+                    .as("%s", predicate)
+                    .isEqualTo(jpqlCount(predicate));
+        }
+    }
+
+    @Test
+    public void aggregatesMatchJpql() {
+        for (Predicate predicate : Arrays.asList(null, member.team.name.eq("teamA"), member.age.gt(100))) {
+            Tuple tuple = queryFactory
+                    .select(member.count(), member.username.count(), member.age.sum(), member.age.avg(),
+                            member.age.min(), member.age.max())
+                    .from(member)
+                    .where(predicate)
+                    .fetchOne();
+
+            assertThat(snapshot.aggregate(member.count(), predicate)).isEqualTo(tuple.get(member.count()));
+            assertThat(snapshot.aggregate(member.username.count(), predicate)).isEqualTo(tuple.get(member.username.count()));
+            Integer sum = tuple.get(member.age.sum());
+            assertThat(snapshot.aggregate(member.age.sum(), predicate)).isEqualTo(sum == null ? null : sum.longValue());
+            assertThat(snapshot.aggregate(member.age.avg(), predicate)).isEqualTo(tuple.get(member.age.avg()));
+            assertThat(snapshot.aggregate(member.age.min(), predicate)).isEqualTo(tuple.get(member.age.min()));
+            assertThat(snapshot.aggregate(member.age.max(), predicate)).isEqualTo(tuple.get(member.age.max()));
+        }
+        assertThat(snapshot.aggregate(member.age.max(), member.age.gt(100))).isNull();
+    }
+
+    @Test
+    public void ageStatsByTeamName() {
+        List<TeamStatsDto> stats = snapshot.ageStatsByTeamName(member.age.lt(50));
+
+        assertThat(stats)
+                .extracting(TeamStatsDto::getTeamName, TeamStatsDto::getCount, TeamStatsDto::getSum,
+                        TeamStatsDto::getAvg, TeamStatsDto::getMin, TeamStatsDto::getMax)
+                .containsExactly(
+                        org.assertj.core.groups.Tuple.tuple("teamA", 2L, 30L, 15.0, 10, 20),
+                        org.assertj.core.groups.Tuple.tuple("teamB", 2L, 70L, 35.0, 30, 40));
+        // 조건에 맞는 회원이 없는 팀은 빠짐 (group by 와 같음)
+        assertThat(snapshot.ageStatsByTeamName(member.age.gt(45)))
+                .extracting(TeamStatsDto::getTeamName)
+                .containsExactly("teamB");
+    }
+
+    @Test
+    public void committedChangesAreApplied() {
+        long before = snapshot.count(null);
+        transactionTemplate.executeWithoutResult(status -> {
+            persist(new Member("member5", 60, em.find(Team.class, teamA.getId())));
+            em.find(Member.class, memberIds.get(0)).setAge(11);                                  // member1 나이
+            em.find(Member.class, memberIds.get(1)).setTeam(em.find(Team.class, teamB.getId()));  // member2 -> teamB
+            em.remove(em.find(Member.class, memberIds.get(3)));                                   // member4 삭제
+            em.find(Team.class, teamB.getId()).setName("teamC");                                  // 팀 이름 변경
+        });
+
+        assertThat(snapshot.count(null)).isEqualTo(before);
+        assertThat(snapshot.count(member.username.eq("member5"))).isEqualTo(1);
+        assertThat(snapshot.count(member.username.eq("member4"))).isZero();
+        assertThat(snapshot.aggregate(member.age.min(), member.team.name.eq("teamA"))).isEqualTo(11);
+        assertThat(snapshot.count(member.team.name.eq("teamB"))).isZero();
+        assertThat(snapshot.ageStatsByTeamName(null))
+                .extracting(TeamStatsDto::getTeamName, TeamStatsDto::getCount)
+                .containsExactly(
+                        org.assertj.core.groups.Tuple.tuple("teamA", 2L),
+                        org.assertj.core.groups.Tuple.tuple("teamC", 3L));
+        assertThat(snapshot.count(member.age.gt(0))).isEqualTo(jpqlCount(member.age.gt(0)));
+    }
+
+    @Test
+    public void rolledBackChangesAreNotApplied() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.persist(new Member("rollback", 70, em.find(Team.class, teamA.getId())));
+            em.find(Member.class, memberIds.get(0)).setAge(99);
+            em.flush();
+            status.setRollbackOnly();
+        });
+
+        assertThat(snapshot.count(member.username.eq("rollback"))).isZero();
+        assertThat(snapshot.count(member.age.eq(99))).isZero();
+    }
+
+    @Test
+    public void unsupportedExpression() {
+        assertThatThrownBy(() -> snapshot.count(member.age.eq(member.id.intValue())))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> snapshot.count(member.username.length().gt(3)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> snapshot.aggregate(member.username.length().sum(), null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void persist(Member member) {
+        em.persist(member);
+        memberIds.add(member.getId());
+    }
+
+    // team(QTeam) 조건은 join(member.team, team) 을 전제로 하므로 left join 으로 붙임 (조건이 없으면 회원 수는 그대로)
+    private long jpqlCount(Predicate predicate) {
+        return queryFactory
+                .select(member.count())
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(predicate)
+                .fetchOne();
+    }
+}
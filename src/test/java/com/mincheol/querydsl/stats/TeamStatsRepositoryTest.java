@@ -0,0 +1,148 @@
+package com.mincheol.querydsl.stats;
+
+import com.mincheol.querydsl.dto.TeamStatsDto;
+import com.mincheol.querydsl.entity.Member;
+import com.mincheol.querydsl.entity.Team;
+import com.mincheol.querydsl.service.BulkUpdateService;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static com.mincheol.querydsl.entity.QMember.member;
+import static com.mincheol.querydsl.entity.QTeam.team;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+@Transactional
+class TeamStatsRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TeamStatsRepository teamStatsRepository;
+
+    @Autowired
+    BulkUpdateService bulkUpdateService;
+
+    JPAQueryFactory queryFactory;
+    Team teamA;
+    Team teamB;
+
+    @BeforeEach
+    public void before() {
+        queryFactory = new JPAQueryFactory(em);
+        teamA = new Team("teamA");
+        teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void insert() {
+        assertThat(teamStatsRepository.findAll())
+                .extracting("teamName", "count", "sum", "avg", "min", "max")
+                .containsExactly(
+                        tuple("teamA", 2L, 30L, 15.0, 10, 20),
+                        tuple("teamB", 2L, 70L, 35.0, 30, 40));
+
+        em.persist(new Member("member5", 5, em.find(Team.class, teamA.getId())));
+        em.flush();
+
+        assertThat(teamStatsRepository.findAll()).first()
+                .extracting("count", "sum", "min", "max")
+                .containsExactly(3L, 35L, 5, 20);
+        assertConsistent();
+    }
+
+    @Test
+    public void changeAge() {
+        findByUsername("member1").setAge(25);    // teamA 의 최솟값이 빠짐
+        em.flush();
+
+        assertThat(teamStatsRepository.findAll()).first()
+                .extracting("count", "sum", "min", "max")
+                .containsExactly(2L, 45L, 20, 25);
+        assertConsistent();
+    }
+
+    @Test
+    public void changeTeam() {
+        findByUsername("member4").setTeam(em.find(Team.class, teamA.getId()));
+        em.flush();
+
+        assertThat(teamStatsRepository.findAll())
+                .extracting("teamName", "count", "sum", "min", "max")
+                .containsExactly(
+                        tuple("teamA", 3L, 70L, 10, 40),
+                        tuple("teamB", 1L, 30L, 30, 30));
+        assertConsistent();
+    }
+
+    @Test
+    public void delete() {
+        em.remove(findByUsername("member3"));
+        em.remove(findByUsername("member4"));
+        em.flush();
+
+        // 회원이 없는 팀은 조회되지 않음
+        assertThat(teamStatsRepository.findAll()).extracting("teamName").containsExactly("teamA");
+        assertConsistent();
+    }
+
+    @Test
+    public void autoFlushBeforeQuery() {
+        findByUsername("member2").setAge(50);
+
+        // flush 없이 바로 조회해도 쿼리 전 자동 flush 에서 반영됨
+        assertThat(teamStatsRepository.findAll()).first().extracting("max").isEqualTo(50);
+    }
+
+    @Test
+    public void bulkUpdate() {
+        bulkUpdateService.addAge(team.name.eq("teamB"), 5);
+        bulkUpdateService.changeTeam(member.username.eq("member1"), em.find(Team.class, teamB.getId()));
+        bulkUpdateService.delete(member.username.eq("member2"));
+
+        assertThat(teamStatsRepository.findAll())
+                .extracting("teamName", "count", "sum", "min", "max")
+                .containsExactly(tuple("teamB", 3L, 90L, 10, 45));
+        assertConsistent();
+    }
+
+    @Test
+    public void reconcile() {
+        assertThat(teamStatsRepository.reconcile()).isEmpty();
+
+        // 리스너를 거치지 않는 변경
+        em.createNativeQuery("update member set age = age * 2").executeUpdate();
+        assertThat(teamStatsRepository.findAll()).isNotEqualTo(teamStatsRepository.aggregate());
+
+        assertThat(teamStatsRepository.reconcile()).containsExactlyInAnyOrder(teamA.getId(), teamB.getId());
+        assertConsistent();
+        assertThat(teamStatsRepository.reconcile()).isEmpty();
+    }
+
+    private void assertConsistent() {
+        List<TeamStatsDto> live = teamStatsRepository.aggregate();
+        assertThat(teamStatsRepository.findAll()).isEqualTo(live);
+    }
+
+    private Member findByUsername(String username) {
+        return queryFactory.selectFrom(member).where(member.username.eq(username)).fetchOne();
+    }
+}
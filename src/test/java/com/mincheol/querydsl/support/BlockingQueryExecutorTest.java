@@ -0,0 +1,100 @@
+package com.mincheol.querydsl.support;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// 작업은 워커 스레드의 별도 트랜잭션에서 돌기 때문에 테스트 트랜잭션을 쓰지 않음
+@SpringBootTest
+class BlockingQueryExecutorTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    private BlockingQueryExecutor executor(int poolSize, int queueCapacity, Duration timeout) {
+        return new BlockingQueryExecutor(em, transactionManager, poolSize, queueCapacity, timeout, false);
+    }
+
+    @Test
+    public void runsInReadOnlyTransaction() throws Exception {
+        BlockingQueryExecutor executor = executor(1, 1, Duration.ofSeconds(5));
+        try {
+            Boolean readOnly = executor.submit(TransactionSynchronizationManager::isCurrentTransactionReadOnly)
+                    .get(5, TimeUnit.SECONDS);
+            Object one = executor.submit(() -> em.createNativeQuery("select 1").getSingleResult())
+                    .get(5, TimeUnit.SECONDS);
+
+            assertThat(readOnly).isTrue();
+            assertThat(((Number) one).intValue()).isEqualTo(1);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void rejectsWhenPoolAndQueueAreFull() throws Exception {
+        BlockingQueryExecutor executor = executor(1, 1, Duration.ofSeconds(5));
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            CompletableFuture<Integer> running = executor.submit(() -> await(release, 1));
+            CompletableFuture<Integer> queued = executor.submit(() -> await(release, 2));
+            CompletableFuture<Integer> rejected = executor.submit(() -> 3);
+
+            assertThatThrownBy(rejected::join).hasCauseInstanceOf(RejectedExecutionException.class);
+
+            release.countDown();
+            assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+            assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo(2);
+            assertThat(executor.submit(() -> 4).get(5, TimeUnit.SECONDS)).isEqualTo(4);    // 자리가 나면 다시 받음
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void timeoutCancelsRunningStatement() throws Exception {
+        BlockingQueryExecutor executor = executor(1, 1, Duration.ofMillis(300));
+        try {
+            // cancel 되지 않으면 사실상 끝나지 않는 쿼리 (10^10 행)
+            CompletableFuture<Object> slow = executor.submit(() -> em.createNativeQuery(
+                    "select count(*) from system_range(1, 100000) a, system_range(1, 100000) b where a.x + b.x = 0")
+                    .getSingleResult());
+
+            assertThatThrownBy(() -> slow.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(QueryTimeoutException.class);
+
+            // statement 가 취소돼서 하나뿐인 워커가 바로 다음 작업을 받음
+            assertThat(executor.submit(() -> 1).get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static int await(CountDownLatch latch, int value) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return value;
+    }
+}
@@ -0,0 +1,83 @@
+package com.mincheol.querydsl.support;
+
+import com.mincheol.querydsl.dto.MemberDto;
+import com.mincheol.querydsl.dto.UserDto;
+import com.mincheol.querydsl.entity.Member;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static com.mincheol.querydsl.entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Transactional
+class CompiledProjectionsTest {
+
+    @Autowired
+    EntityManager em;
+
+    JPAQueryFactory queryFactory;
+
+    @BeforeEach
+    public void before() {
+        queryFactory = new JPAQueryFactory(em);
+        em.persist(new Member("member1", 10));
+        em.persist(new Member("member2", 20));
+    }
+
+    @Test
+    public void bean() {
+        List<MemberDto> result = queryFactory
+                .select(CompiledProjections.bean(MemberDto.class, member.username, member.age))
+                .from(member)
+                .orderBy(member.age.asc())
+                .fetch();
+
+        assertThat(result).containsExactly(new MemberDto("member1", 10), new MemberDto("member2", 20));
+    }
+
+    @Test
+    public void fieldsWithAlias() {
+        List<UserDto> result = queryFactory
+                .select(CompiledProjections.fields(UserDto.class, member.username.as("name"), member.age))
+                .from(member)
+                .orderBy(member.age.asc())
+                .fetch();
+
+        assertThat(result).extracting("name").containsExactly("member1", "member2");
+        assertThat(result).extracting("age").containsExactly(10, 20);
+    }
+
+    @Test
+    public void constructor() {
+        List<MemberDto> result = queryFactory
+                .select(CompiledProjections.constructor(MemberDto.class, member.username, member.age))
+                .from(member)
+                .orderBy(member.age.asc())
+                .fetch();
+
+        assertThat(result).containsExactly(new MemberDto("member1", 10), new MemberDto("member2", 20));
+    }
+
+    @Test
+    public void nullValueKeepsDefault() {
+        FactoryExpression<MemberDto> projection = CompiledProjections.bean(MemberDto.class, member.username, member.age);
+
+        assertThat(projection.newInstance("member1", null)).isEqualTo(new MemberDto("member1", 0));
+    }
+
+    @Test
+    public void unknownProperty() {
+        assertThatThrownBy(() -> CompiledProjections.bean(UserDto.class, member.username, member.age))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
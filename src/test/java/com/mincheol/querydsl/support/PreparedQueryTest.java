@@ -0,0 +1,109 @@
+package com.mincheol.querydsl.support;
+
+import com.mincheol.querydsl.dto.MemberDto;
+import com.mincheol.querydsl.dto.QMemberDto;
+import com.mincheol.querydsl.entity.Member;
+import com.querydsl.core.NonUniqueResultException;
+import com.querydsl.core.types.ParamNotSetException;
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static com.mincheol.querydsl.entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Transactional
+class PreparedQueryTest {
+
+    static final Param<String> USERNAME = new Param<>(String.class, "username");
+    static final Param<Integer> AGE_FROM = new Param<>(Integer.class, "ageFrom");
+    static final Param<Integer> AGE_TO = new Param<>(Integer.class, "ageTo");
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PreparedQueries preparedQueries;
+
+    JPAQueryFactory queryFactory;
+
+    @BeforeEach
+    public void before() {
+        queryFactory = new JPAQueryFactory(em);
+        em.persist(new Member("member1", 10));
+        em.persist(new Member("member2", 20));
+        em.persist(new Member("member3", 30));
+        em.persist(new Member("member4", 40));
+    }
+
+    @Test
+    public void search() {
+        PreparedQuery<Member> search = PreparedQuery.of(queryFactory
+                .selectFrom(member)
+                .where(member.username.eq(USERNAME)
+                        .and(member.age.between(AGE_FROM, AGE_TO))), em);
+
+        assertThat(search.getJpql()).contains("member1.username = ?1");
+
+        Member found = search.with(USERNAME, "member1").with(AGE_FROM, 10).with(AGE_TO, 30).fetchOne(em);
+        assertThat(found.getUsername()).isEqualTo("member1");
+
+        Member notFound = search.with(USERNAME, "member4").with(AGE_FROM, 10).with(AGE_TO, 30).fetchOne(em);
+        assertThat(notFound).isNull();
+    }
+
+    @Test
+    public void projectionAndPaging() {
+        PreparedQuery<MemberDto> page = preparedQueries.get("member.dto.page", qf -> qf
+                .select(new QMemberDto(member.username, member.age))
+                .from(member)
+                .where(member.age.goe(AGE_FROM))
+                .orderBy(member.age.asc())
+                .offset(1)
+                .limit(2));
+
+        List<MemberDto> result = page.with(AGE_FROM, 10).fetch(em);
+        assertThat(result).containsExactly(new MemberDto("member2", 20), new MemberDto("member3", 30));
+
+        // 같은 이름이면 캐시된 인스턴스 재사용
+        assertThat(preparedQueries.get("member.dto.page", qf -> null)).isSameAs(page);
+    }
+
+    @Test
+    public void constantsAreFixedAtPrepareTime() {
+        PreparedQuery<Member> adults = PreparedQuery.of(queryFactory
+                .selectFrom(member)
+                .where(member.age.goe(30)), em);
+
+        assertThat(adults.fetch(em)).extracting("username").containsExactlyInAnyOrder("member3", "member4");
+    }
+
+    @Test
+    public void fetchOneNonUnique() {
+        PreparedQuery<Member> olderThan = PreparedQuery.of(queryFactory
+                .selectFrom(member)
+                .where(member.age.gt(AGE_FROM)), em);
+
+        assertThatThrownBy(() -> olderThan.with(AGE_FROM, 10).fetchOne(em))
+                .isInstanceOf(NonUniqueResultException.class);
+    }
+
+    @Test
+    public void missingParam() {
+        PreparedQuery<Member> byName = PreparedQuery.of(queryFactory
+                .selectFrom(member)
+                .where(member.username.eq(USERNAME)), em);
+
+        assertThatThrownBy(() -> byName.fetch(em))
+                .isInstanceOf(ParamNotSetException.class);
+    }
+}
@@ -0,0 +1,97 @@
+package com.mincheol.querydsl.support;
+
+import com.mincheol.querydsl.dto.MemberDto;
+import com.mincheol.querydsl.dto.QMemberDto;
+import com.mincheol.querydsl.entity.Member;
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static com.mincheol.querydsl.entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "querydsl.streaming.clear-interval=1000")
+@Transactional
+class StreamingQueryExecutorTest {
+
+    static final int ROWS = 1_000_000;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    StreamingQueryExecutor streamingQueryExecutor;
+
+    JPAQueryFactory queryFactory;
+
+    @BeforeEach
+    public void before() {
+        queryFactory = new JPAQueryFactory(em);
+    }
+
+    // 백만 건은 엔티티로 persist 하면 너무 느리므로 H2 에서 바로 생성
+    private void insertMembers(int rows) {
+        em.createNativeQuery("insert into member (member_id, username, age) " +
+                "select x, concat('member', x), mod(x, 100) from system_range(1, " + rows + ")")
+                .executeUpdate();
+    }
+
+    @Test
+    public void streamEntitiesWithBoundedPersistenceContext() {
+        insertMembers(ROWS);
+        Session session = em.unwrap(Session.class);
+        AtomicInteger maxManaged = new AtomicInteger();
+        AtomicLong count = new AtomicLong();
+
+        try (Stream<Member> stream = streamingQueryExecutor.stream(queryFactory.selectFrom(member))) {
+            stream.forEach(m -> {
+                count.incrementAndGet();
+                maxManaged.accumulateAndGet(session.getStatistics().getEntityCount(), Math::max);
+            });
+        }
+
+        assertThat(count.get()).isEqualTo(ROWS);
+        assertThat(maxManaged.get()).isLessThanOrEqualTo(1000);
+    }
+
+    @Test
+    public void streamDto() {
+        insertMembers(10_000);
+        long sum;
+        try (Stream<MemberDto> stream = streamingQueryExecutor.stream(
+                queryFactory.select(new QMemberDto(member.username, member.age)).from(member))) {
+            sum = stream.mapToLong(MemberDto::getAge).sum();
+        }
+
+        assertThat(sum).isEqualTo(10_000 / 100 * (99 * 100 / 2));
+        assertThat(em.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
+    @Test
+    public void streamTuple() {
+        insertMembers(10_000);
+        try (Stream<Tuple> stream = streamingQueryExecutor.stream(
+                queryFactory.select(member.username, member.age).from(member).where(member.age.eq(0)))) {
+            assertThat(stream.count()).isEqualTo(100);
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void requiresTransaction() {
+        assertThatThrownBy(() -> streamingQueryExecutor.stream(new JPAQueryFactory(em).selectFrom(member)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,198 @@
+package com.mincheol.querydsl.support;
+
+import com.mincheol.querydsl.entity.Member;
+import com.mincheol.querydsl.entity.QMember;
+import com.mincheol.querydsl.entity.Team;
+import com.mincheol.querydsl.metrics.SqlStatementInspector;
+import com.mincheol.querydsl.metrics.StatementLog;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.dsl.NumberExpression;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.JPQLQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static com.mincheol.querydsl.entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class SubqueryOptimizerTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    SubqueryOptimizer subqueryOptimizer;
+
+    JPAQueryFactory queryFactory;
+
+    QMember memberSub = new QMember("memberSub");
+
+    @BeforeEach
+    public void before() {
+        queryFactory = new JPAQueryFactory(em);
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void scalarSubqueryInWhereBecomesConstant() {
+        List<Member> result;
+        try (StatementLog log = SqlStatementInspector.open()) {
+            result = subqueryOptimizer.optimize(queryFactory
+                    .selectFrom(member)
+                    .where(member.age.goe(JPAExpressions.select(memberSub.age.avg()).from(memberSub))))
+                    .fetch();
+
+            // avg 한 번 + 본 쿼리 (본 쿼리에는 서브쿼리가 없음)
+            assertThat(log.getTotal()).isEqualTo(2);
+            assertThat(lastStatement(log)).doesNotContain("avg(");
+        }
+
+        assertThat(result).extracting("age").containsExactlyInAnyOrder(30, 40);
+    }
+
+    @Test
+    public void scalarSubqueryInSelectBecomesConstant() {
+        JPQLQuery<Double> avgAge = JPAExpressions.select(memberSub.age.avg()).from(memberSub);
+
+        List<Tuple> result;
+        try (StatementLog log = SqlStatementInspector.open()) {
+            result = subqueryOptimizer.optimize(queryFactory
+                    .select(member.username, avgAge)
+                    .from(member)
+                    .orderBy(member.username.asc()))
+                    .fetch();
+
+            assertThat(lastStatement(log)).doesNotContain("avg(");
+        }
+
+        assertThat(result).hasSize(4);
+        assertThat(result.get(0).get(member.username)).isEqualTo("member1");
+        assertThat(result.get(0).get(avgAge)).isEqualTo(25.0);
+    }
+
+    @Test
+    public void inSubqueryBecomesInList() {
+        List<Member> result;
+        try (StatementLog log = SqlStatementInspector.open()) {
+            result = subqueryOptimizer.optimize(queryFactory
+                    .selectFrom(member)
+                    .where(member.age.in(JPAExpressions.select(memberSub.age).from(memberSub).where(memberSub.age.gt(10)))))
+                    .fetch();
+
+            assertThat(lastStatement(log)).contains(" in (").doesNotContain("select member1_");
+        }
+
+        assertThat(result).extracting("age").containsExactlyInAnyOrder(20, 30, 40);
+    }
+
+    @Test
+    public void emptyInSubquery() {
+        List<Member> result = subqueryOptimizer.optimize(queryFactory
+                .selectFrom(member)
+                .where(member.age.in(JPAExpressions.select(memberSub.age).from(memberSub).where(memberSub.age.gt(100)))))
+                .fetch();
+
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    public void notInKeepsSubqueryWhenResultHasNull() {
+        em.persist(new Member(null, 50));
+
+        List<Member> result;
+        try (StatementLog log = SqlStatementInspector.open()) {
+            result = subqueryOptimizer.optimize(queryFactory
+                    .selectFrom(member)
+                    .where(member.username.notIn(JPAExpressions.select(memberSub.username).from(memberSub).where(memberSub.age.goe(30)))))
+                    .fetch();
+
+            assertThat(lastStatement(log)).containsPattern("not in \\s*\\(select");
+        }
+
+        // 서브쿼리 결과에 null 이 있으면 not in 은 아무것도 매칭하지 않음 (원래 쿼리와 같은 결과)
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    public void largeInSubqueryIsKept() {
+        SubqueryOptimizer smallThreshold = new SubqueryOptimizer(em, 2);
+
+        List<Member> result;
+        try (StatementLog log = SqlStatementInspector.open()) {
+            result = smallThreshold.optimize(queryFactory
+                    .selectFrom(member)
+                    .where(member.age.in(JPAExpressions.select(memberSub.age).from(memberSub))))
+                    .fetch();
+
+            assertThat(lastStatement(log)).containsPattern(" in \\s*\\(select");
+        }
+
+        assertThat(result).hasSize(4);
+    }
+
+    @Test
+    public void correlatedSubqueryIsKept() {
+        // 팀에서 가장 나이 많은 회원 : memberSub.team = member.team 으로 바깥 쿼리를 참조함
+        NumberExpression<Integer> maxAge = memberSub.age.max();
+
+        List<Member> result;
+        try (StatementLog log = SqlStatementInspector.open()) {
+            result = subqueryOptimizer.optimize(queryFactory
+                    .selectFrom(member)
+                    .where(member.age.eq(JPAExpressions.select(maxAge).from(memberSub).where(memberSub.team.eq(member.team)))))
+                    .fetch();
+
+            assertThat(log.getTotal()).isEqualTo(1);
+            assertThat(lastStatement(log)).contains("max(");
+        }
+
+        assertThat(result).extracting("username").containsExactlyInAnyOrder("member2", "member4");
+    }
+
+    @Test
+    public void uncorrelatedSubqueryInsideCorrelatedOneIsReplaced() {
+        // 팀 평균이 전체 평균 이상인 팀의 회원 : 바깥 서브쿼리는 correlated, 안쪽 전체 평균은 uncorrelated
+        QMember memberAll = new QMember("memberAll");
+
+        List<Member> result;
+        try (StatementLog log = SqlStatementInspector.open()) {
+            result = subqueryOptimizer.optimize(queryFactory
+                    .selectFrom(member)
+                    .where(JPAExpressions.select(memberSub.age.avg()).from(memberSub).where(memberSub.team.eq(member.team))
+                            .goe(JPAExpressions.select(memberAll.age.avg()).from(memberAll))))
+                    .fetch();
+
+            assertThat(log.getTotal()).isEqualTo(2);
+            assertThat(lastStatement(log)).containsOnlyOnce("avg(");
+        }
+
+        assertThat(result).extracting("username").containsExactlyInAnyOrder("member3", "member4");
+    }
+
+    private static String lastStatement(StatementLog log) {
+        String last = null;
+        for (String sql : log.getStatements()) {
+            last = sql;
+        }
+        return last;
+    }
+}